@@ -0,0 +1,205 @@
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+// Benchmarks every conversion path with warm-up, and reports time, allocations and GC activity per operation.
+// Compile and run from the project root:
+//   javac -encoding UTF-8 -sourcepath src -d out bench/ConversionBenchmarks.java
+//   java -cp out ConversionBenchmarks                                         (prints the results)
+//   java -cp out ConversionBenchmarks --save bench/results-baseline.csv      (saves them as the new baseline)
+//   java -cp out ConversionBenchmarks --compare bench/results-baseline.csv   (shows the change from the baseline)
+public class ConversionBenchmarks {
+    private static final long WARMUP_NANOS = 1_000_000_000L;
+    private static final int ITERATIONS = 3;
+    private static final long ITERATION_NANOS = 1_000_000_000L;
+
+    private static final com.sun.management.ThreadMXBean THREADS = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private static int sink; // Results are added here so the JIT can't remove the work
+
+    private interface Operation {
+        Object run() throws Exception;
+    }
+
+    private record Result(String name, double nanosPerOperation, double bytesPerOperation, long gcCount, long gcMillis) {}
+
+    public static void main(String[] args) throws Exception {
+        Random random = new Random(42);
+        List<Result> results = new ArrayList<>();
+
+        // DecimalNumber across digit counts and fraction lengths, just parsing and grouping, then the whole conversion and -s
+        for (int digits : new int[] {10, 1_000, 100_000}) {
+            for (int fractionDigits : new int[] {0, 100}) {
+                String number = randomDigits(random, digits) + (fractionDigits > 0 ? "." + randomDigits(random, fractionDigits) : "");
+                String name = digits + "." + fractionDigits;
+
+                results.add(measure("DecimalNumber.new/" + name, () -> new DecimalNumber(number, true)));
+                results.add(measure("DecimalNumber.writeTo/" + name, () -> spell(new DecimalNumber(number, true))));
+
+                DecimalNumber parsed = new DecimalNumber(number, true); // Only the formatting, with the groups already split
+                results.add(measure("DecimalNumber.getFormatted/" + name, parsed::getFormatted));
+            }
+        }
+
+        // Spelling a long fraction digit by digit, with random digits and with long runs grouped as a count
+        String fraction = randomDigits(random, 1_000_000);
+        String runs = "0".repeat(500_000) + "1" + "9".repeat(499_999);
+        results.add(measure("writeDecimal/1000000", () -> spell(fraction, false)));
+        results.add(measure("writeDecimal.grouped/1000000", () -> spell(runs, true)));
+
+        // ScientificNumber with exponents that are moved into the number and exponents that become an illion offset
+        BigDecimal coefficient = new BigDecimal("1.23456789");
+        for (String exponent : new String[] {"-5", "10", "1000", "3000000", "2000000000"}) {
+            results.add(measure("ScientificNumber.writeTo/e" + exponent, () -> spell(new ScientificNumber(coefficient, new BigInteger(exponent), true))));
+        }
+        for (int exponentDigits : new int[] {30, 300}) { // Exponents that don't fit in an int, positive and negative
+            BigInteger exponent = BigInteger.TEN.pow(exponentDigits);
+
+            results.add(measure("ScientificNumber.writeTo/e1e" + exponentDigits, () -> spell(new ScientificNumber(coefficient, exponent, true))));
+            results.add(measure("ScientificNumber.writeTo/e-1e" + exponentDigits, () -> spell(new ScientificNumber(coefficient, exponent.negate(), true))));
+        }
+
+        // Splitting into thousand groups, from a BigInteger and from the digit characters
+        for (int digits : new int[] {1_000, 100_000}) {
+            String string = randomDigits(random, digits);
+            BigInteger number = new BigInteger(string);
+
+            results.add(measure("getGroupsOfThousands.BigInteger/" + digits, () -> Converter.getGroupsOfThousands(number)));
+            results.add(measure("getGroupsOfThousands.chars/" + digits, () -> Converter.getGroupsOfThousands(string, 0, string.length())));
+        }
+
+        // Illion generation, spelled as "one <illion>" so only the illion has any cost, with and without the cache
+        StringBuilder converted = new StringBuilder();
+        short[] one = {1};
+        for (int ordinalDigits : new int[] {3, 30, 300}) {
+            BigInteger offset = BigInteger.TEN.pow(ordinalDigits).add(BigInteger.ONE); // The illion ordinal is offset - 1
+
+            Converter.setIllionCacheCapacity(0);
+            results.add(measure("generateIllion.uncached/1e" + ordinalDigits, () -> writeInteger(one, offset, converted)));
+            Converter.setIllionCacheCapacity(1024);
+            results.add(measure("generateIllion.cached/1e" + ordinalDigits, () -> writeInteger(one, offset, converted)));
+        }
+
+        // Every number with one group, which writeInteger spells with the ThreeDigitNumbers lookup
+        short[][] oneGroupNumbers = new short[1000][];
+        for (short i = 0; i < oneGroupNumbers.length; i++) oneGroupNumbers[i] = new short[] {i};
+        results.add(measure("writeInteger.oneGroup/0-999", () -> {
+            for (short[] number : oneGroupNumbers) writeInteger(number, BigInteger.ZERO, converted);
+            return converted;
+        }));
+
+        print(results, args.length == 2 && args[0].equals("--compare") ? readBaseline(Path.of(args[1])) : Map.of());
+        if (args.length == 2 && args[0].equals("--save")) save(results, Path.of(args[1]));
+    }
+
+    private static Result measure(String name, Operation operation) throws Exception {
+        run(operation, WARMUP_NANOS); // Lets the JIT compile everything first
+
+        long gcCount = gcCount(), gcMillis = gcMillis();
+        long bytes = THREADS.getCurrentThreadAllocatedBytes();
+        long nanos = 0, operations = 0;
+
+        for (int i = 0; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            operations += run(operation, ITERATION_NANOS);
+            nanos += System.nanoTime() - start;
+        }
+
+        bytes = THREADS.getCurrentThreadAllocatedBytes() - bytes;
+        return new Result(name, (double) nanos / operations, (double) bytes / operations, gcCount() - gcCount, gcMillis() - gcMillis);
+    }
+
+    private static long run(Operation operation, long duration) throws Exception { // Returns how many times the operation ran
+        long end = System.nanoTime() + duration;
+        long operations = 0;
+
+        do {
+            sink += System.identityHashCode(operation.run());
+            operations++;
+        } while (System.nanoTime() < end);
+
+        return operations;
+    }
+
+    private static Object spell(Number number) throws IOException {
+        number.writeTo(Writer.nullWriter());
+        return number;
+    }
+
+    private static Object spell(String digits, boolean groupRepeatedDigits) throws IOException {
+        Converter.writeDecimal(digits, 0, digits.length(), groupRepeatedDigits, true, Writer.nullWriter());
+        return digits;
+    }
+
+    private static Object writeInteger(short[] groups, BigInteger offset, StringBuilder converted) throws IOException {
+        converted.setLength(0);
+        Converter.writeInteger(groups, true, offset, converted);
+        return converted;
+    }
+
+    private static String randomDigits(Random random, int length) {
+        StringBuilder digits = new StringBuilder(length);
+
+        digits.append((char) ('1' + random.nextInt(9))); // No leading zero
+        while (digits.length() < length) digits.append((char) ('0' + random.nextInt(10)));
+
+        return digits.toString();
+    }
+
+    private static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) count += Math.max(gc.getCollectionCount(), 0);
+        return count;
+    }
+
+    private static long gcMillis() {
+        long millis = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) millis += Math.max(gc.getCollectionTime(), 0);
+        return millis;
+    }
+
+    private static void print(List<Result> results, Map<String, Double> baseline) {
+        System.out.printf("%-42s %16s %16s %8s %8s%s%n", "benchmark", "time (ns/op)", "alloc (B/op)", "gc", "gc (ms)", baseline.isEmpty() ? "" : "   vs baseline");
+
+        for (Result result : results) {
+            Double before = baseline.get(result.name());
+            String change = before == null ? "" : String.format("   %+.1f%%", (result.nanosPerOperation() / before - 1) * 100);
+
+            System.out.printf("%-42s %16.1f %16.1f %8d %8d%s%n", result.name(), result.nanosPerOperation(), result.bytesPerOperation(),
+                    result.gcCount(), result.gcMillis(), change);
+        }
+    }
+
+    private static void save(List<Result> results, Path path) throws IOException {
+        List<String> lines = new ArrayList<>(List.of("benchmark,ns_per_op,bytes_per_op"));
+
+        for (Result result : results) {
+            lines.add(String.format(Locale.ROOT, "%s,%.1f,%.1f", result.name(), result.nanosPerOperation(), result.bytesPerOperation()));
+        }
+
+        Files.write(path, lines);
+    }
+
+    private static Map<String, Double> readBaseline(Path path) throws IOException {
+        Map<String, Double> baseline = new HashMap<>();
+
+        List<String> lines = Files.readAllLines(path);
+
+        for (String line : lines.subList(1, lines.size())) { // Skips the header
+            String[] columns = line.split(",");
+            baseline.put(columns[0], Double.parseDouble(columns[1]));
+        }
+
+        return baseline;
+    }
+}
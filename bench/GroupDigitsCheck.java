@@ -0,0 +1,59 @@
+import java.io.Writer;
+
+// Checks that writeGroupDigits works out the length of numbers whose digits don't fit in an int, like 600 million
+// groups with a two-char separator (3 billion chars), and writes exactly that many chars. The groups go in a
+// temporary file and are all zeros, so the file takes almost no disk space. Exits with 1 if a length is different.
+// Compile and run from the project root:
+//   javac -encoding UTF-8 -sourcepath src -d out bench/GroupDigitsCheck.java
+//   java -cp out GroupDigitsCheck
+public class GroupDigitsCheck {
+    private static final int[] LENGTHS = {1, 2, 2_731, 1_000_000, 536_870_912, 600_000_000};
+    private static final String[] SEPARATORS = {"", ",", "  "};
+
+    public static void main(String[] args) throws Exception {
+        long defaultThreshold = PackedGroups.getSpillThreshold();
+        PackedGroups.setSpillThreshold(0);
+        int failures = 0;
+
+        for (int length : LENGTHS) {
+            PackedGroups groups = PackedGroups.allocate(length);
+            groups.set(0, 12);
+
+            for (String separator : SEPARATORS) {
+                long expected = 2 + (length - 1L) * (3 + separator.length());
+                long computed = Converter.getGroupDigitsLength(groups, separator);
+
+                CountingWriter written = new CountingWriter();
+                long startTime = System.nanoTime();
+                Converter.writeGroupDigits(groups, separator, written);
+                long time = System.nanoTime() - startTime;
+
+                boolean same = computed == expected && written.count == expected;
+                if (!same) failures++;
+                System.out.printf("%,13d groups, separator of %d: %,15d chars computed, %,15d written, %,7d ms%s%n", length, separator.length(),
+                        computed, written.count, time / 1_000_000, same ? "" : "  DIFFERENT");
+            }
+        }
+        PackedGroups.setSpillThreshold(defaultThreshold);
+
+        System.out.printf("%n%d different%n", failures);
+        System.exit(failures == 0 ? 0 : 1);
+    }
+
+    private static class CountingWriter extends Writer { // Keeps only how many chars it got
+        private long count;
+
+        @Override
+        public void write(char[] chars, int offset, int length) {
+            count += length;
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
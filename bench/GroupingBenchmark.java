@@ -0,0 +1,53 @@
+import java.math.BigInteger;
+import java.util.Random;
+
+// Compares the old one-division-per-group loop with the divide-and-conquer Converter.getGroupsOfThousands,
+// and with reading the groups directly from the digit characters.
+// Compile and run from the project root:
+//   javac -encoding UTF-8 -sourcepath src -d out bench/GroupingBenchmark.java && java -Xmx4g -cp out GroupingBenchmark
+public class GroupingBenchmark {
+    private static final int LEGACY_MAX_DIGITS = 100_000; // The old loop is quadratic, bigger numbers would take too long
+
+    public static void main(String[] args) {
+        Random random = new Random(42);
+
+        System.out.printf("%12s %16s %16s %16s%n", "digits", "old loop (ms)", "split (ms)", "chars (ms)");
+
+        for (int digits = 1_000; digits <= 10_000_000; digits *= 10) {
+            BigInteger number = new BigInteger((int) (digits / Math.log10(2)), random);
+            String string = number.toString();
+
+            String legacy = digits <= LEGACY_MAX_DIGITS ? String.format("%.3f", time(() -> legacyGroupsOfThousands(number))) : "skipped";
+            double split = time(() -> Converter.getGroupsOfThousands(number));
+            double chars = time(() -> Converter.getGroupsOfThousands(string, 0, string.length()));
+
+            System.out.printf("%12d %16s %16.3f %16.3f%n", string.length(), legacy, split, chars);
+        }
+    }
+
+    private static double time(Runnable task) { // Best of a few runs in milliseconds, the first ones warm up the JIT
+        long best = Long.MAX_VALUE;
+
+        for (int i = 0; i < 3; i++) {
+            long start = System.nanoTime();
+            task.run();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+
+        return best / 1_000_000.0;
+    }
+
+    // The previous implementation of Converter.getGroupsOfThousands
+    private static short[] legacyGroupsOfThousands(BigInteger number) {
+        int length = number.toString().length();
+        int groupCount = (length + 2) / 3;
+        short[] groups = new short[groupCount];
+
+        for (int i = groupCount - 1; i >= 0; i--) {
+            groups[i] = number.remainder(BigInteger.valueOf(1000)).shortValue();
+            number = number.divide(BigInteger.valueOf(1000));
+        }
+
+        return groups;
+    }
+}
@@ -0,0 +1,47 @@
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.math.BigInteger;
+import java.util.Random;
+
+// Measures converting 1,000 groups into a reused StringBuilder, which is mostly the hundreds spelling.
+// Prints the time and the bytes allocated per conversion (like JMH's gc.alloc.rate.norm).
+// Compile and run from the project root:
+//   javac -encoding UTF-8 -sourcepath src -d out bench/HundredsBenchmark.java && java -cp out HundredsBenchmark
+public class HundredsBenchmark {
+    private static final int WARMUP_OPERATIONS = 20_000;
+    private static final int OPERATIONS = 20_000;
+
+    public static void main(String[] args) throws IOException {
+        short[] groups = new short[1000];
+        Random random = new Random(42);
+
+        for (int i = 0; i < groups.length; i++) {
+            groups[i] = (short) (1 + random.nextInt(999)); // No zero groups, so every group is spelled
+        }
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        StringBuilder converted = new StringBuilder();
+
+        System.out.printf("%10s %14s %16s%n", "hyphens", "time (us/op)", "alloc (B/op)");
+
+        for (boolean hyphens : new boolean[] {true, false}) {
+            for (int i = 0; i < WARMUP_OPERATIONS; i++) {
+                converted.setLength(0);
+                Converter.writeInteger(groups, hyphens, BigInteger.ZERO, converted);
+            }
+
+            long startBytes = threads.getCurrentThreadAllocatedBytes();
+            long startTime = System.nanoTime();
+
+            for (int i = 0; i < OPERATIONS; i++) {
+                converted.setLength(0);
+                Converter.writeInteger(groups, hyphens, BigInteger.ZERO, converted);
+            }
+
+            long time = System.nanoTime() - startTime;
+            long bytes = threads.getCurrentThreadAllocatedBytes() - startBytes;
+
+            System.out.printf("%10s %14.3f %16.1f%n", hyphens, time / 1_000.0 / OPERATIONS, (double) bytes / OPERATIONS);
+        }
+    }
+}
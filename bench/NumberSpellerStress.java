@@ -0,0 +1,99 @@
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Checks that NumberSpellers can be shared by many threads: every thread spells the same numbers with shared spellers,
+// in a different order, and the results must match the ones spelled on one thread first. The illion cache is kept
+// tiny so the threads keep adding and evicting illions at the same time. Exits with 1 if anything is different.
+// Compile and run from the project root:
+//   javac -encoding UTF-8 -sourcepath src -d out bench/NumberSpellerStress.java
+//   java -cp out NumberSpellerStress
+public class NumberSpellerStress {
+    private static final int THREADS = 16;
+    private static final int ROUNDS = 20;
+    private static final int NUMBERS = 400;
+
+    private record Case(NumberSpeller speller, String number, BigInteger exponent, String expected) {}
+
+    public static void main(String[] args) throws Exception {
+        Random random = new Random(42);
+        List<NumberSpeller> spellers = List.of(
+                NumberSpeller.builder().build(),
+                NumberSpeller.builder().hyphens(false).capitalize(false).build(),
+                NumberSpeller.builder().groupRepeatedDigits(true).build(),
+                NumberSpeller.builder().illionOffset(BigInteger.valueOf(1_000_000)).build());
+
+        Converter.setIllionCacheCapacity(8);
+
+        List<Case> cases = new ArrayList<>();
+        for (int i = 0; i < NUMBERS; i++) {
+            NumberSpeller speller = spellers.get(i % spellers.size());
+            String number = randomNumber(random);
+            BigInteger exponent = i % 3 == 0 ? BigInteger.valueOf(random.nextInt(2_000_001) - 1_000_000) : null;
+
+            cases.add(new Case(speller, number, exponent, spell(speller, number, exponent)));
+        }
+
+        AtomicInteger mismatches = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        long startTime = System.nanoTime();
+
+        for (int thread = 0; thread < THREADS; thread++) {
+            int seed = thread;
+
+            futures.add(executor.submit(() -> {
+                Random order = new Random(seed);
+
+                for (int round = 0; round < ROUNDS; round++) {
+                    for (int i = 0; i < cases.size(); i++) {
+                        Case test = cases.get(order.nextInt(cases.size()));
+
+                        if (!spell(test.speller(), test.number(), test.exponent()).equals(test.expected())) {
+                            if (mismatches.incrementAndGet() <= 5) System.err.println("Different result for " + test.number() + " e" + test.exponent());
+                        }
+                    }
+                }
+            }));
+        }
+
+        for (Future<?> future : futures) future.get();
+        executor.shutdown();
+
+        // spellAll on a pool must keep the order
+        List<String> numbers = cases.stream().filter(test -> test.exponent() == null).map(Case::number).toList();
+        List<String> sequential = spellers.get(0).spellAll(numbers, null);
+        if (!spellers.get(0).spellAll(numbers, new ForkJoinPool(THREADS)).equals(sequential)) mismatches.incrementAndGet();
+
+        System.out.printf("%,d conversions on %d threads in %.1fms, %d different results%n", THREADS * ROUNDS * cases.size(), THREADS,
+                (System.nanoTime() - startTime) / 1_000_000.0, mismatches.get());
+        System.exit(mismatches.get() == 0 ? 0 : 1);
+    }
+
+    private static String spell(NumberSpeller speller, String number, BigInteger exponent) {
+        return (exponent == null ? speller.spell(number) : speller.spell(new BigDecimal(number), exponent)).toString();
+    }
+
+    private static String randomNumber(Random random) {
+        StringBuilder number = new StringBuilder();
+
+        if (random.nextBoolean()) number.append('-');
+        int digits = 1 + random.nextInt(random.nextInt(10) == 0 ? 3000 : 40);
+        for (int i = 0; i < digits; i++) number.append((char) ('0' + random.nextInt(10)));
+
+        if (random.nextBoolean()) {
+            number.append('.');
+            int fractionDigits = 1 + random.nextInt(20);
+            for (int i = 0; i < fractionDigits; i++) number.append(random.nextInt(3) == 0 ? '0' : (char) ('0' + random.nextInt(10)));
+        }
+
+        return number.toString();
+    }
+}
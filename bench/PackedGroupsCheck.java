@@ -0,0 +1,81 @@
+import java.util.Random;
+
+// Checks that PackedGroups gives back the same groups as a short[], with get() and with a cursor started anywhere,
+// both on the heap and in a temporary file, then compares the size and the time to read every group in order.
+// Exits with 1 if any group is different.
+// Compile and run from the project root:
+//   javac -encoding UTF-8 -sourcepath src -d out bench/PackedGroupsCheck.java
+//   java -cp out PackedGroupsCheck
+public class PackedGroupsCheck {
+    private static final int ARRAYS = 2_000;
+    private static final int ROUNDS = 20;
+    private static volatile long sink; // So the reading loops aren't removed
+
+    public static void main(String[] args) {
+        Random random = new Random(42);
+        long defaultThreshold = PackedGroups.getSpillThreshold();
+        int failures = 0;
+
+        for (int i = 0; i < ARRAYS; i++) {
+            short[] groups = randomGroups(random, 1 + random.nextInt(random.nextInt(50) == 0 ? 2_000_000 : random.nextInt(10) == 0 ? 100_000 : 200));
+
+            PackedGroups.setSpillThreshold(i % 2 == 0 ? defaultThreshold : 0); // Every other one is in a file, if it's large enough
+            PackedGroups packed = PackedGroups.of(groups);
+
+            boolean same = packed.length() == groups.length && packed.isMapped() == (i % 2 == 1 && (groups.length * 10L + 63) / 64 * 8 > PackedGroups.MIN_SPILL_BYTES);
+            for (int j = 0; j < groups.length && same; j++) same = packed.get(j) == groups[j];
+
+            int start = random.nextInt(groups.length);
+            PackedGroups.Cursor cursor = packed.cursor(start);
+            for (int j = start; j < groups.length && same; j++) same = cursor.hasNext() && cursor.next() == groups[j];
+            same = same && !cursor.hasNext();
+
+            if (!same && ++failures <= 5) System.err.println("Different groups for array " + i + " of length " + groups.length);
+        }
+        PackedGroups.setSpillThreshold(defaultThreshold);
+
+        System.out.printf("%,d arrays packed and read back, %d different%n%n", ARRAYS, failures);
+
+        System.out.printf("%12s %14s %14s %14s %14s %14s%n", "groups", "short[] (KB)", "packed (KB)", "short[] (us)", "heap (us)", "file (us)");
+        for (int length = 1_000_000; length <= 16_000_000; length *= 4) {
+            short[] groups = randomGroups(random, length);
+            PackedGroups heap = PackedGroups.of(groups);
+            PackedGroups.setSpillThreshold(0);
+            PackedGroups file = PackedGroups.of(groups);
+            PackedGroups.setSpillThreshold(defaultThreshold);
+
+            long arrayTime = Long.MAX_VALUE, heapTime = Long.MAX_VALUE, fileTime = Long.MAX_VALUE, sum = 0;
+            for (int round = 0; round < ROUNDS; round++) {
+                long startTime = System.nanoTime();
+                for (short group : groups) sum += group;
+                arrayTime = Math.min(arrayTime, System.nanoTime() - startTime);
+
+                startTime = System.nanoTime();
+                sum += readAll(heap);
+                heapTime = Math.min(heapTime, System.nanoTime() - startTime);
+
+                startTime = System.nanoTime();
+                sum += readAll(file);
+                fileTime = Math.min(fileTime, System.nanoTime() - startTime);
+            }
+
+            sink = sum;
+            System.out.printf("%,12d %,14d %,14d %,14d %,14d %,14d%n", length, length * 2L / 1024, (length * 10L + 63) / 64 * 8 / 1024,
+                    arrayTime / 1000, heapTime / 1000, fileTime / 1000);
+        }
+
+        System.exit(failures == 0 ? 0 : 1);
+    }
+
+    private static long readAll(PackedGroups groups) {
+        long sum = 0;
+        for (PackedGroups.Cursor cursor = groups.cursor(0); cursor.hasNext(); ) sum += cursor.next();
+        return sum;
+    }
+
+    private static short[] randomGroups(Random random, int length) {
+        short[] groups = new short[length];
+        for (int i = 0; i < length; i++) groups[i] = (short) random.nextInt(1000);
+        return groups;
+    }
+}
@@ -0,0 +1,44 @@
+import java.io.Writer;
+import java.math.BigInteger;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+// Measures how converting a number with millions of groups scales with the number of threads.
+// Compile and run from the project root:
+//   javac -encoding UTF-8 -sourcepath src -d out bench/ParallelBenchmark.java && java -cp out ParallelBenchmark [digits]
+public class ParallelBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int digits = args.length > 0 ? Integer.parseInt(args[0]) : 3_000_000;
+        String string = new BigInteger((int) (digits / Math.log10(2)), new Random(42)).toString();
+        DecimalNumber number = new DecimalNumber(string, true);
+        int processors = Runtime.getRuntime().availableProcessors();
+
+        System.out.printf("%,d digits, %d processors%n", string.length(), processors);
+        System.out.printf("%10s %14s %10s%n", "threads", "time (ms)", "speedup");
+
+        time(number, null); // Warms up the JIT so the first measurement isn't slower
+        double sequential = time(number, null);
+        System.out.printf("%10s %14.1f %10.2f%n", "off", sequential, 1.0);
+
+        for (int threads = 1; threads <= Math.max(processors, 1); threads *= 2) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            double parallel = time(number, pool);
+            pool.shutdown();
+
+            System.out.printf("%10d %14.1f %10.2f%n", threads, parallel, sequential / parallel);
+        }
+    }
+
+    private static double time(DecimalNumber number, ForkJoinPool pool) throws Exception { // Best of a few runs in milliseconds
+        long best = Long.MAX_VALUE;
+
+        for (int i = 0; i < 3; i++) {
+            long start = System.nanoTime();
+            number.writeTo(Writer.nullWriter(), pool);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+
+        return best / 1_000_000.0;
+    }
+}
@@ -0,0 +1,87 @@
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.List;
+import java.util.Random;
+
+// Spells random numbers with every option and checks that SpellingParser reads back the same number, then times
+// parsing spelled numbers of growing sizes, which should grow linearly. Exits with 1 if any number is different.
+// Compile and run from the project root:
+//   javac -encoding UTF-8 -sourcepath src -d out bench/RoundTripCheck.java
+//   java -cp out RoundTripCheck
+public class RoundTripCheck {
+    private static final int NUMBERS = 20_000;
+
+    public static void main(String[] args) throws IOException {
+        Random random = new Random(42);
+        List<NumberSpeller> spellers = List.of(
+                NumberSpeller.builder().build(),
+                NumberSpeller.builder().hyphens(false).capitalize(false).build(),
+                NumberSpeller.builder().groupRepeatedDigits(true).build());
+        int failures = 0;
+
+        for (int i = 0; i < NUMBERS; i++) {
+            NumberSpeller speller = spellers.get(i % spellers.size());
+            BigDecimal coefficient = new BigDecimal(randomNumber(random));
+            BigInteger exponent = switch (i % 4) {
+                case 0 -> null;
+                case 1 -> BigInteger.valueOf(random.nextInt(20_001) - 10_000);
+                case 2 -> BigInteger.TEN.pow(1 + random.nextInt(40)).negate(); // Compressed as "zero repeated ... times"
+                default -> BigInteger.TEN.pow(1 + random.nextInt(40)); // Illions made of many illis
+            };
+
+            String spelled = (exponent == null ? speller.spell(coefficient.toPlainString()) : speller.spell(coefficient, exponent)).toString();
+            SpellingParser.Result result = SpellingParser.parse(spelled);
+
+            // Compares the digits and the exponent, since numbers with huge exponents don't fit in a BigDecimal
+            BigDecimal stripped = coefficient.stripTrailingZeros();
+            boolean zero = stripped.signum() == 0;
+            String digits = zero ? "0" : stripped.unscaledValue().abs().toString();
+            BigInteger expected = zero ? BigInteger.ZERO : (exponent == null ? BigInteger.ZERO : exponent).subtract(BigInteger.valueOf(stripped.scale()));
+
+            if (!result.digits().equals(digits) || !result.exponent().equals(expected) || result.negative() != (stripped.signum() < 0)) {
+                if (++failures <= 5) System.err.println("Different for " + coefficient + " e" + exponent + ": " + result);
+            }
+        }
+
+        System.out.printf("%,d numbers spelled and parsed back, %d different%n%n", NUMBERS, failures);
+
+        System.out.printf("%12s %14s %12s %12s%n", "digits", "text (chars)", "time (ms)", "ns/char");
+        for (int digits = 250_000; digits <= 2_000_000; digits *= 2) {
+            String spelled = spellers.get(0).spell(randomDigits(random, digits)).toString();
+
+            for (int i = 0; i < 3; i++) SpellingParser.parse(new StringReader(spelled)); // Warm-up
+
+            long startTime = System.nanoTime();
+            SpellingParser.parse(new StringReader(spelled));
+            long time = System.nanoTime() - startTime;
+
+            System.out.printf("%,12d %,14d %12.1f %12.2f%n", digits, spelled.length(), time / 1_000_000.0, (double) time / spelled.length());
+        }
+
+        System.exit(failures == 0 ? 0 : 1);
+    }
+
+    private static String randomNumber(Random random) {
+        StringBuilder number = new StringBuilder();
+
+        if (random.nextBoolean()) number.append('-');
+        number.append(randomDigits(random, 1 + random.nextInt(random.nextInt(20) == 0 ? 500 : 30)));
+
+        if (random.nextBoolean()) {
+            number.append('.');
+            int zeros = random.nextInt(4) == 0 ? random.nextInt(12) : 0; // Sometimes a run of zeros, for the grouping
+            number.append("0".repeat(zeros));
+            number.append(randomDigits(random, 1 + random.nextInt(15)));
+        }
+
+        return number.toString();
+    }
+
+    private static String randomDigits(Random random, int length) {
+        StringBuilder digits = new StringBuilder(length);
+        for (int i = 0; i < length; i++) digits.append((char) ('0' + random.nextInt(10)));
+        return digits.toString();
+    }
+}
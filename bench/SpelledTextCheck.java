@@ -0,0 +1,95 @@
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.List;
+import java.util.Random;
+
+// Checks that SpelledText gives the same text as spelling the whole number, for random numbers with every option and
+// random slices, then times building the index and reading small slices of larger and larger numbers. Reading a slice
+// should take about the same time for every size. Exits with 1 if any text is different.
+// Compile and run from the project root:
+//   javac -encoding UTF-8 -sourcepath src -d out bench/SpelledTextCheck.java
+//   java -cp out SpelledTextCheck
+public class SpelledTextCheck {
+    private static final int NUMBERS = 5_000;
+    private static final int SLICES = 20;
+
+    public static void main(String[] args) {
+        Random random = new Random(42);
+        List<NumberSpeller> spellers = List.of(
+                NumberSpeller.builder().build(),
+                NumberSpeller.builder().hyphens(false).capitalize(false).build(),
+                NumberSpeller.builder().groupRepeatedDigits(true).build(),
+                NumberSpeller.builder().illionOffset(BigInteger.valueOf(1_000)).build());
+        int failures = 0;
+
+        for (int i = 0; i < NUMBERS; i++) {
+            NumberSpeller speller = spellers.get(i % spellers.size());
+            String number = randomNumber(random);
+            BigInteger exponent = i % 3 == 0 ? BigInteger.valueOf(random.nextInt(2001) - 1000) : null;
+
+            String expected = (exponent == null ? speller.spell(number) : speller.spell(new BigDecimal(number), exponent)).toString();
+            SpelledText text = exponent == null ? speller.view(number) : speller.view(new BigDecimal(number), exponent);
+
+            boolean same = text.getLength() == expected.length() && text.toString().equals(expected);
+            for (int j = 0; j < SLICES && same; j++) {
+                int start = random.nextInt(expected.length() + 1);
+                int end = start + random.nextInt(expected.length() - start + 1);
+                int index = random.nextInt(expected.length());
+
+                same = text.subSequence(start, end).equals(expected.substring(start, end)) && text.charAt(index) == expected.charAt(index);
+            }
+
+            if (!same && ++failures <= 5) System.err.println("Different text for " + number + " e" + exponent);
+        }
+
+        System.out.printf("%,d numbers read through SpelledText, %d different%n%n", NUMBERS, failures);
+
+        System.out.printf("%12s %16s %12s %14s %16s%n", "digits", "text (chars)", "index (ms)", "slice (us)", "charAt (ns)");
+        for (int digits = 250_000; digits <= 4_000_000; digits *= 2) {
+            String number = randomDigits(random, digits);
+
+            long startTime = System.nanoTime();
+            SpelledText text = spellers.get(0).view(number);
+            long indexTime = System.nanoTime() - startTime;
+
+            long sliceTime = 0, charTime = 0;
+            for (int i = 0; i < 1000; i++) {
+                long start = (long) (random.nextDouble() * (text.getLength() - 100));
+
+                startTime = System.nanoTime();
+                text.slice(start, start + 100);
+                sliceTime += System.nanoTime() - startTime;
+
+                startTime = System.nanoTime();
+                for (int j = 0; j < 100; j++) text.charAt((int) start + j); // In order, so most of them come from the last block
+                charTime += System.nanoTime() - startTime;
+            }
+
+            System.out.printf("%,12d %,16d %12.1f %14.2f %16.1f%n", digits, text.getLength(), indexTime / 1_000_000.0, sliceTime / 1000 / 1_000.0, charTime / 100_000.0);
+        }
+
+        System.exit(failures == 0 ? 0 : 1);
+    }
+
+    private static String randomNumber(Random random) {
+        StringBuilder number = new StringBuilder();
+
+        if (random.nextBoolean()) number.append('-');
+        number.append(randomDigits(random, 1 + random.nextInt(random.nextInt(10) == 0 ? 5000 : 30)));
+
+        if (random.nextBoolean()) {
+            number.append('.');
+            int zeros = random.nextInt(4) == 0 ? random.nextInt(3000) : 0; // Sometimes a long run of zeros, for the grouping and the blocks
+            number.append("0".repeat(zeros));
+            number.append(randomDigits(random, 1 + random.nextInt(random.nextInt(10) == 0 ? 3000 : 15)));
+        }
+
+        return number.toString();
+    }
+
+    private static String randomDigits(Random random, int length) {
+        StringBuilder digits = new StringBuilder(length);
+        for (int i = 0; i < length; i++) digits.append((char) ('0' + random.nextInt(10)));
+        return digits.toString();
+    }
+}
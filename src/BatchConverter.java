@@ -0,0 +1,140 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigInteger;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+// Converts many numbers, one per line, in the same JVM. The output has one line for each input line in the same order,
+// invalid numbers get an empty line and an error on System.err so the lines still match.
+public class BatchConverter {
+    private static final int MAX_PENDING_PER_THREAD = 64; // How many lines each worker can be ahead of the writer
+
+    private final NumberSpeller speller;
+    private final BigInteger exponent; // null if the numbers are not in scientific notation
+    private final boolean showNumber;
+    private final boolean eNotation;
+    private final FormatSymbols symbols; // For showNumber
+
+    private final ThreadLocal<StringBuilder> buffers = ThreadLocal.withInitial(StringBuilder::new); // Reused for every line
+
+    private long[] latencies = new long[1024]; // Of the valid numbers
+    private int valid, errors;
+
+    public record Summary(int count, int errors, long totalNanos, long p50Nanos, long p99Nanos) {}
+
+    private record Line(String converted, long nanos) {} // converted is null if the number is invalid
+
+    record LineCount(int count, int errors) {} // For convertLines, blank lines are not counted
+
+    public BatchConverter(NumberSpeller speller, BigInteger exponent, boolean showNumber, boolean eNotation, FormatSymbols symbols) {
+        this.speller = speller;
+        this.exponent = exponent;
+        this.showNumber = showNumber;
+        this.eNotation = eNotation;
+        this.symbols = symbols;
+    }
+
+    // If pool is not null, the lines are converted in parallel on it, but still written in order
+    public Summary convertAll(BufferedReader reader, Writer writer, ForkJoinPool pool) throws IOException {
+        long startTime = System.nanoTime();
+        valid = errors = 0;
+        String text;
+        int lineNumber = 0;
+
+        if (pool == null) {
+            while ((text = reader.readLine()) != null) {
+                write(convert(text), ++lineNumber, writer);
+            }
+        } else {
+            Deque<ForkJoinTask<Line>> pending = new ArrayDeque<>();
+            int maxPending = pool.getParallelism() * MAX_PENDING_PER_THREAD;
+
+            while ((text = reader.readLine()) != null) {
+                String line = text;
+                pending.add(pool.submit(() -> convert(line)));
+
+                if (pending.size() >= maxPending) write(pending.poll().join(), ++lineNumber, writer);
+            }
+
+            while (!pending.isEmpty()) {
+                write(pending.poll().join(), ++lineNumber, writer);
+            }
+        }
+
+        writer.flush();
+
+        long[] sorted = Arrays.copyOf(latencies, valid);
+        Arrays.sort(sorted);
+
+        return new Summary(valid + errors, errors, System.nanoTime() - startTime, percentile(sorted, 0.5), percentile(sorted, 0.99));
+    }
+
+    // Converts every line to out, for FileBatchConverter. Unlike convertAll, this can be called from many threads at
+    // once. Invalid numbers are reported on System.err with the name of the file.
+    LineCount convertLines(Iterator<String> lines, String name, Appendable out) throws IOException {
+        int lineNumber = 0, count = 0, invalid = 0;
+
+        while (lines.hasNext()) {
+            Line line = convert(lines.next());
+            lineNumber++;
+
+            if (line.converted() == null) {
+                System.err.println(name + ", line " + lineNumber + ": Please enter a valid number");
+                invalid++;
+            } else {
+                if (!line.converted().isEmpty()) count++;
+                out.append(line.converted());
+            }
+            out.append(System.lineSeparator());
+        }
+
+        return new LineCount(count + invalid, invalid);
+    }
+
+    private Line convert(String text) {
+        if (text.isBlank()) return new Line("", 0);
+
+        long startTime = System.nanoTime();
+        StringBuilder converted = buffers.get();
+        converted.setLength(0);
+
+        text = text.strip();
+
+        try {
+            Number number = speller.parse(text, exponent);
+
+            if (showNumber) {
+                number.writeFormatted(converted, symbols, eNotation);
+                converted.append(": ");
+            }
+            speller.write(number, converted, null);
+        } catch (NumberFormatException | ArithmeticException | IOException e) {
+            return new Line(null, 0);
+        }
+
+        return new Line(converted.toString(), System.nanoTime() - startTime);
+    }
+
+    private void write(Line line, int lineNumber, Writer writer) throws IOException {
+        if (line.converted() == null) {
+            System.err.println("Line " + lineNumber + ": Please enter a valid number");
+            errors++;
+        } else if (!line.converted().isEmpty()) { // Blank lines are not counted
+            if (valid == latencies.length) latencies = Arrays.copyOf(latencies, latencies.length * 2);
+            latencies[valid++] = line.nanos();
+        }
+
+        writer.write(line.converted() == null ? "" : line.converted());
+        writer.write(System.lineSeparator());
+    }
+
+    private static long percentile(long[] sorted, double percentile) { // Nearest-rank percentile
+        if (sorted.length == 0) return 0;
+        return sorted[(int) Math.ceil(percentile * sorted.length) - 1];
+    }
+}
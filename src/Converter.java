@@ -1,50 +1,184 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.math.BigDecimal;
 import java.math.BigInteger;
-import java.util.HashMap;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 public class Converter {
+    private static final int PARALLEL_CHUNK_SIZE = 4096; // Number of groups converted by each parallel task
+    private static final double LOG_10_OF_2 = Math.log10(2);
+    private static final int DECIMAL_BUFFER_SIZE = 8192; // Chars of digit words (or formatted digits) written to out at once
+    private static final int MAX_DIGIT_WORD_LENGTH = 6; // " three", " seven" and " eight"
+    protected static final int MIN_GROUPED_RUN = 4; // Shorter runs of the same digit are spelled one by one even when grouping
+    protected static final int MAX_SPELLED_LEADING_ZEROS = 100; // More zeros than this right after the decimal point are spelled as a count, even without grouping
+    private static final String[] DIGIT_WORDS = {"zero", "one", "two", "three", "four", "five", "six", "seven", "eight", "nine"};
+    private static final char[] PADDED_GROUPS = new char[3000]; // "000" to "999" one after another, for showing the groups in digits
+    private static final List<BigInteger> POWERS_OF_THOUSAND = new ArrayList<>(List.of(BigInteger.valueOf(1000))); // 1000^(2^k) at index k
 
     private Converter() {}
 
+    static {
+        for (int i = 0; i < 1000; i++) {
+            PADDED_GROUPS[i * 3] = (char) ('0' + i / 100);
+            PADDED_GROUPS[i * 3 + 1] = (char) ('0' + i / 10 % 10);
+            PADDED_GROUPS[i * 3 + 2] = (char) ('0' + i % 10);
+        }
+    }
+
     protected static StringBuilder convertInteger(short[] numberGroups, boolean hyphens, BigInteger illionOffset) { // illionOffset adds offsets to the illion index for custom scaling (e.g., starting at "million" instead of "thousand" for illionOffset of 1).
-        if (numberGroups.length == 1 && numberGroups[0] == 0) return new StringBuilder("zero");
+        return convertInteger(PackedGroups.of(numberGroups), hyphens, illionOffset);
+    }
 
-        StringBuilder converted = new StringBuilder();
-        int numberOfLastGroupsWithoutIllion = illionOffset.compareTo(BigInteger.valueOf(2)) < 0 ? 2 - illionOffset.intValue() : 0;
+    protected static StringBuilder convertInteger(PackedGroups numberGroups, boolean hyphens, BigInteger illionOffset) {
+        return appendTo(new StringBuilder(), out -> writeInteger(numberGroups, hyphens, illionOffset, out));
+    }
+
+    // Same as convertInteger, but writes each group to out as soon as it is converted instead of building the whole result
+    protected static void writeInteger(short[] numberGroups, boolean hyphens, BigInteger illionOffset, Appendable out) throws IOException {
+        writeInteger(PackedGroups.of(numberGroups), hyphens, illionOffset, out, null);
+    }
 
-        // Converts three digit groups (groups that are usually separated by comma when numbers are written)
-        for (int i = 0; i < numberGroups.length - numberOfLastGroupsWithoutIllion; i++) {
+    protected static void writeInteger(PackedGroups numberGroups, boolean hyphens, BigInteger illionOffset, Appendable out) throws IOException {
+        writeInteger(numberGroups, hyphens, illionOffset, out, null);
+    }
 
-            if (numberGroups[i] != 0) {
-                converted.append(convertHundreds(numberGroups[i], hyphens)) // Adds the converted group of numbers
-                        .append(" ")
-                        .append(IllionGenerator.generateIllion(BigInteger.valueOf(numberGroups.length - i - 2).add(illionOffset)))
-                        .append(" ");
-            }
+    // If pool is not null, ranges of groups are converted in parallel on it and written to out in order
+    protected static void writeInteger(PackedGroups numberGroups, boolean hyphens, BigInteger illionOffset, Appendable out, ForkJoinPool pool) throws IOException {
+        if (numberGroups.isZero()) {
+            out.append("zero");
+            return;
+        }
 
+        int groupsWithIllion = getGroupsWithIllion(numberGroups, illionOffset);
+
+        if (pool == null || groupsWithIllion <= PARALLEL_CHUNK_SIZE) {
+            writeGroups(numberGroups, 0, groupsWithIllion, hyphens, illionOffset, out);
+        } else {
+            writeGroupsInParallel(numberGroups, groupsWithIllion, hyphens, illionOffset, out, pool);
         }
 
+        writeLastGroups(numberGroups, hyphens, illionOffset, out);
+    }
+
+    // How many groups from the start are followed by an illion, the others are written by writeLastGroups
+    protected static int getGroupsWithIllion(PackedGroups numberGroups, BigInteger illionOffset) {
+        return Math.max(numberGroups.length() - getGroupsWithoutIllion(illionOffset), 0);
+    }
+
+    private static int getGroupsWithoutIllion(BigInteger illionOffset) { // The thousands and hundreds groups, if the illionOffset doesn't skip them
+        return illionOffset.compareTo(BigInteger.valueOf(2)) < 0 ? 2 - illionOffset.intValue() : 0;
+    }
+
+    // Writes the groups at the end that don't have an illion, like "four thousand five hundred sixty-seven"
+    protected static void writeLastGroups(PackedGroups numberGroups, boolean hyphens, BigInteger illionOffset, Appendable out) throws IOException {
+        int numberOfLastGroupsWithoutIllion = getGroupsWithoutIllion(illionOffset);
+
         if (numberOfLastGroupsWithoutIllion >= 1) { // Adding the thousands and hundreds groups
-            short thousandGroup = numberGroups.length - numberOfLastGroupsWithoutIllion < 0 ? 0 :
-                    numberGroups[numberGroups.length - numberOfLastGroupsWithoutIllion];
-            short hundredGroup = numberOfLastGroupsWithoutIllion == 2 ? numberGroups[numberGroups.length - 1] : 0;
+            if (Profiler.enabled) Profiler.enter(Profiler.Stage.HUNDREDS_SPELLING);
+            int thousandGroup = numberGroups.length() - numberOfLastGroupsWithoutIllion < 0 ? 0 :
+                    numberGroups.get(numberGroups.length() - numberOfLastGroupsWithoutIllion);
+            int hundredGroup = numberOfLastGroupsWithoutIllion == 2 ? numberGroups.get(numberGroups.length() - 1) : 0;
 
             if (thousandGroup != 0) { // Adding the thousands group
-                converted.append(convertHundreds(thousandGroup, hyphens)).append(" thousand");
-                if (hundredGroup != 0) converted.append(" ");
+                String thousands = convertHundreds(thousandGroup, hyphens);
+                out.append(thousands).append(" thousand");
+                if (hundredGroup != 0) out.append(" ");
+                if (Profiler.enabled) Profiler.count(Profiler.Stage.HUNDREDS_SPELLING, thousands.length() + (hundredGroup != 0 ? 10 : 9));
             }
             if (hundredGroup != 0) { // Adding the hundreds group
-                converted.append(convertHundreds(hundredGroup, hyphens));
+                String hundreds = convertHundreds(hundredGroup, hyphens);
+                out.append(hundreds);
+                if (Profiler.enabled) Profiler.count(Profiler.Stage.HUNDREDS_SPELLING, hundreds.length());
             }
 
         }
+    }
+
+    // Converts three digit groups (groups that are usually separated by comma when numbers are written) in [from, to), each followed by its illion
+    protected static void writeGroups(PackedGroups numberGroups, int from, int to, boolean hyphens, BigInteger illionOffset, Appendable out) throws IOException {
+        if (from >= to) return;
 
-        return converted;
+        // The illion ordinal goes down by one for each group, so it is counted down instead of being created for every group
+        if (Profiler.enabled) Profiler.enter(Profiler.Stage.ILLION_GENERATION);
+        IllionCounter illion = new IllionCounter(BigInteger.valueOf(numberGroups.length() - from - 2).add(illionOffset));
+        PackedGroups.Cursor groups = numberGroups.cursor(from);
+
+        for (int i = from; i < to; i++) {
+            int group = groups.next();
+
+            if (group != 0) {
+                if (Profiler.enabled) Profiler.enter(Profiler.Stage.HUNDREDS_SPELLING);
+                String hundreds = convertHundreds(group, hyphens);
+                out.append(hundreds).append(" "); // Adds the converted group of numbers
+
+                if (Profiler.enabled) Profiler.enter(Profiler.Stage.ILLION_GENERATION); // Also counts the decrement below
+                CharSequence name = illion.getName();
+                out.append(name).append(" ");
+
+                if (Profiler.enabled) {
+                    Profiler.count(Profiler.Stage.HUNDREDS_SPELLING, hundreds.length() + 1);
+                    Profiler.count(Profiler.Stage.ILLION_GENERATION, name.length() + 1);
+                }
+            }
+
+            if (i + 1 < to) illion.decrement();
+        }
+    }
+
+    // How many chars writeGroups writes for the same groups, from the lengths of the spelled groups and illions, so
+    // nothing is spelled
+    protected static long getGroupsLength(PackedGroups numberGroups, int from, int to, boolean hyphens, BigInteger illionOffset) {
+        if (from >= to) return 0;
+
+        IllionCounter illion = new IllionCounter(BigInteger.valueOf(numberGroups.length() - from - 2).add(illionOffset), true);
+        PackedGroups.Cursor groups = numberGroups.cursor(from);
+        long length = 0;
+
+        for (int i = from; i < to; i++) {
+            int group = groups.next();
+            if (group != 0) length += convertHundreds(group, hyphens).length() + illion.getNameLength() + 2; // Both are followed by a space
+
+            if (i + 1 < to) illion.decrement();
+        }
+
+        return length;
+    }
+
+    // Every group only depends on its own value and position, so chunks of groups can be converted at the same time.
+    // Only a few chunks are converted ahead of the one being written, so memory stays bounded.
+    private static void writeGroupsInParallel(PackedGroups numberGroups, int to, boolean hyphens, BigInteger illionOffset, Appendable out, ForkJoinPool pool) throws IOException {
+        Deque<ForkJoinTask<StringBuilder>> pending = new ArrayDeque<>();
+        int maxPending = pool.getParallelism() * 2;
+
+        for (int from = 0; from < to; from += PARALLEL_CHUNK_SIZE) {
+            int chunkFrom = from;
+            int chunkTo = Math.min(from + PARALLEL_CHUNK_SIZE, to);
+
+            pending.add(pool.submit(() -> {
+                StringBuilder chunk = new StringBuilder();
+                writeGroups(numberGroups, chunkFrom, chunkTo, hyphens, illionOffset, chunk);
+                return chunk;
+            }));
+
+            if (pending.size() >= maxPending) out.append(pending.poll().join());
+        }
+
+        while (!pending.isEmpty()) {
+            out.append(pending.poll().join());
+        }
     }
 
     protected static String convertDecimal(BigDecimal decimal) { // Convert the decimal/fraction part (digits after the decimal point)
-        StringBuilder converted = new StringBuilder();
 
 //        int scale = decimal.scale();
 //        for (int i = 0; i < scale; i++) {
@@ -52,18 +186,224 @@ public class Converter {
 //            converted.append(" ").append(TwoDigitNumbers.get(decimal.remainder(BigDecimal.TEN).intValue()));
 //        }
 
-        String plain = decimal.stripTrailingZeros().toPlainString();
-        String fraction = plain.contains(".") ? plain.substring(plain.indexOf('.') + 1) : "";
+        // The fraction is the last scale digits of the unscaled value, so the value is never moved or divided
+        String digits = decimal.unscaledValue().abs().toString();
+        int scale = decimal.scale();
+        int end = digits.length();
 
-        for (int i = 0; i < fraction.length(); i++) {
-            converted.append(" ").append(TwoDigitNumbers.get(fraction.charAt(i) - '0'));
+        while (scale > 0 && end > 0 && digits.charAt(end - 1) == '0') { // Trailing zeros are not spelled
+            end--;
+            scale--;
         }
+        if (scale <= 0) return "";
 
-        converted.deleteCharAt(0);
-        return converted.toString();
+        String fraction = scale > end ? "0".repeat(scale - end) + digits.substring(0, end) : digits.substring(end - scale, end);
+        return convertDecimal(fraction, 0, fraction.length());
     }
 
-    private static String convertHundreds(short number, boolean hyphens) {
+    protected static String convertDecimal(CharSequence digits, int start, int end) { // Convert the digits in [start, end) one by one
+        StringBuilder converted = new StringBuilder(getDecimalCapacity(0, end - start));
+        return appendTo(converted, out -> writeDecimal(digits, start, end, false, true, out)).toString();
+    }
+
+    protected static void writeDecimal(CharSequence digits, int start, int end, Appendable out) throws IOException {
+        writeDecimal(digits, start, end, false, true, out);
+    }
+
+    // Spells the digits in [start, end) one by one. The words are collected in a buffer that is written to out in chunks
+    // (or straight into out if it's a StringBuilder), so it takes linear time with one call to out for thousands of digits.
+    // If groupRepeatedDigits is true, runs of at least MIN_GROUPED_RUN of the same digit are written like
+    // "zero repeated one million times" instead
+    protected static void writeDecimal(CharSequence digits, int start, int end, boolean groupRepeatedDigits, boolean hyphens, Appendable out) throws IOException {
+        if (start >= end) return;
+        if (Profiler.enabled) Profiler.enter(Profiler.Stage.HUNDREDS_SPELLING);
+
+        StringBuilder buffer = out instanceof StringBuilder builder ? builder : new StringBuilder(DECIMAL_BUFFER_SIZE);
+        int initialLength = buffer.length();
+        if (buffer == out && !groupRepeatedDigits) buffer.ensureCapacity(getDecimalCapacity(buffer.length(), end - start)); // Grouped runs are much shorter
+        boolean first = true; // Every word after the first one has a space before it
+
+        for (int i = start; i < end; ) {
+            char digit = digits.charAt(i);
+            int runEnd = i + 1;
+            if (groupRepeatedDigits) {
+                while (runEnd < end && digits.charAt(runEnd) == digit) runEnd++;
+            }
+
+            if (runEnd - i >= MIN_GROUPED_RUN) {
+                if (!first) buffer.append(' ');
+                writeRepeatedDigit(digit - '0', BigInteger.valueOf(runEnd - i), hyphens, buffer);
+            } else {
+                for (int j = i; j < runEnd; j++) {
+                    if (!first || j != i) buffer.append(' ');
+                    buffer.append(DIGIT_WORDS[digits.charAt(j) - '0']);
+                }
+            }
+
+            first = false;
+            i = runEnd;
+
+            if (buffer != out && buffer.length() >= DECIMAL_BUFFER_SIZE) {
+                if (Profiler.enabled) Profiler.count(Profiler.Stage.HUNDREDS_SPELLING, buffer.length());
+                out.append(buffer);
+                buffer.setLength(0);
+            }
+        }
+
+        if (Profiler.enabled) Profiler.count(Profiler.Stage.HUNDREDS_SPELLING, buffer.length() - initialLength);
+        if (buffer != out) out.append(buffer);
+    }
+
+    // How many chars writeDecimal writes for the same digits, from the lengths of the digit words. Only runs of the same
+    // digit (which are short) are spelled.
+    protected static long getDecimalLength(CharSequence digits, int start, int end, boolean groupRepeatedDigits, boolean hyphens) {
+        long length = 0;
+
+        for (int i = start; i < end; ) {
+            char digit = digits.charAt(i);
+            int runEnd = i + 1;
+            if (groupRepeatedDigits) {
+                while (runEnd < end && digits.charAt(runEnd) == digit) runEnd++;
+            }
+
+            if (i > start) length++; // The space before it
+            if (runEnd - i >= MIN_GROUPED_RUN) {
+                int count = runEnd - i;
+                length += appendTo(new StringBuilder(), out -> writeRepeatedDigit(digit - '0', BigInteger.valueOf(count), hyphens, out)).length();
+            } else {
+                for (int j = i; j < runEnd; j++) length += DIGIT_WORDS[digits.charAt(j) - '0'].length() + (j != i ? 1 : 0);
+            }
+
+            i = runEnd;
+        }
+
+        return length;
+    }
+
+    // Room for length chars and the words of count digits, at most the longest array the JVM can make
+    private static int getDecimalCapacity(int length, int count) {
+        return (int) Math.min(Integer.MAX_VALUE - 8, length + (long) count * MAX_DIGIT_WORD_LENGTH);
+    }
+
+    // True if count zeros right after the decimal point are spelled as a count, like "zero repeated 150 times", so that a
+    // number reads the same written out and with an exponent
+    protected static boolean isCountedLeadingZeros(BigInteger count, boolean groupRepeatedDigits) {
+        return count.compareTo(BigInteger.valueOf(groupRepeatedDigits ? MIN_GROUPED_RUN - 1 : MAX_SPELLED_LEADING_ZEROS)) > 0;
+    }
+
+    // Writes a run of the same digit in a short form, like "zero repeated one million times"
+    protected static void writeRepeatedDigit(int digit, BigInteger count, boolean hyphens, Appendable out) throws IOException {
+        StringBuilder spelledCount = convertInteger(getGroupsOfThousands(count), hyphens, BigInteger.ZERO);
+        int length = spelledCount.length();
+        while (length > 0 && spelledCount.charAt(length - 1) == ' ') length--; // Round counts like "one million " end with a space
+
+        out.append(TwoDigitNumbers.get(digit)).append(" repeated ").append(spelledCount, 0, length);
+        out.append(count.equals(BigInteger.ONE) ? " time" : " times");
+    }
+
+    // Writes the groups in digits with groupSeparator between them, like 1,005,020. The digits are put in a char array
+    // a chunk at a time, so out gets them in big pieces.
+    protected static void writeGroupDigits(PackedGroups numberGroups, String groupSeparator, Appendable out) throws IOException {
+        int groupsPerChunk = DECIMAL_BUFFER_SIZE / (3 + groupSeparator.length()) + 1;
+        char[] chunk = new char[(int) Math.min(getGroupDigitsLength(numberGroups, groupSeparator), groupsPerChunk * (3 + groupSeparator.length()))];
+
+        PackedGroups.Cursor groups = numberGroups.cursor(0);
+
+        for (int from = 0; from < numberGroups.length(); from += groupsPerChunk) {
+            int length = putGroupDigits(groups, from == 0, Math.min(groupsPerChunk, numberGroups.length() - from), groupSeparator, chunk, 0);
+
+            if (out instanceof Writer writer) writer.write(chunk, 0, length);
+            else out.append(new String(chunk, 0, length));
+        }
+    }
+
+    // Puts the next count groups of the cursor in digits into chars at position and returns where they end. Every group
+    // after the first one of the number has three digits, so its zeros are kept, and a separator before it.
+    protected static int putGroupDigits(PackedGroups.Cursor groups, boolean first, int count, String groupSeparator, char[] chars, int position) {
+        if (first && count > 0) { // The first group of the number has no zeros in front
+            int group = groups.next();
+            int start = group >= 100 ? 0 : group >= 10 ? 1 : 2;
+
+            System.arraycopy(PADDED_GROUPS, group * 3 + start, chars, position, 3 - start);
+            position += 3 - start;
+            count--;
+        }
+
+        int separatorLength = groupSeparator.length();
+        char separator = separatorLength == 1 ? groupSeparator.charAt(0) : 0;
+
+        for (int i = 0; i < count; i++) {
+            if (separatorLength == 1) {
+                chars[position++] = separator;
+            } else {
+                groupSeparator.getChars(0, separatorLength, chars, position);
+                position += separatorLength;
+            }
+
+            int digits = groups.next() * 3;
+            chars[position] = PADDED_GROUPS[digits];
+            chars[position + 1] = PADDED_GROUPS[digits + 1];
+            chars[position + 2] = PADDED_GROUPS[digits + 2];
+            position += 3;
+        }
+
+        return position;
+    }
+
+    // How many chars writeGroupDigits writes, a long because it goes over Integer.MAX_VALUE past about 536 million groups
+    protected static long getGroupDigitsLength(PackedGroups numberGroups, String groupSeparator) {
+        int first = numberGroups.get(0);
+        return (first >= 100 ? 3 : first >= 10 ? 2 : 1) + (numberGroups.length() - 1L) * (3 + groupSeparator.length());
+    }
+
+    interface TextWriter { // Writes text to out, for appendTo
+        void write(Appendable out) throws IOException;
+    }
+
+    // Runs writer on a StringBuilder and returns it, so the callers don't need to catch an IOException that can't happen
+    protected static StringBuilder appendTo(StringBuilder builder, TextWriter writer) {
+        try {
+            writer.write(builder);
+        } catch (IOException e) { // StringBuilder doesn't throw IOException
+            throw new UncheckedIOException(e);
+        }
+
+        return builder;
+    }
+
+    // Wraps out so that the first character written to it is capitalized, without needing the whole text first
+    protected static Appendable capitalize(Appendable out) {
+        return new Appendable() {
+            private boolean first = true;
+
+            @Override
+            public Appendable append(CharSequence csq) throws IOException {
+                return append(csq, 0, csq.length());
+            }
+
+            @Override
+            public Appendable append(CharSequence csq, int start, int end) throws IOException {
+                if (first && start < end) {
+                    append(csq.charAt(start++));
+                }
+                out.append(csq, start, end);
+                return this;
+            }
+
+            @Override
+            public Appendable append(char c) throws IOException {
+                out.append(first ? Character.toUpperCase(c) : c);
+                first = false;
+                return this;
+            }
+        };
+    }
+
+    private static String convertHundreds(int number, boolean hyphens) { // Every group is spelled ahead of time, so nothing is allocated here
+        return ThreeDigitNumbers.get(number, hyphens);
+    }
+
+    private static String buildHundreds(int number, boolean hyphens) {
         StringBuilder converted = new StringBuilder();
 
         if (number >= 100) { // Hundreds
@@ -96,7 +436,65 @@ public class Converter {
         private static final String[] HUNDREDS =         {"", "centi", "ducenti", "trecenti", "quadringenti", "quingenti", "sescenti", "septingenti", "octingenti", "nongenti"};
         private static final String[] HUNDREDS_MODIFIER = {"",  "NX",      "N",       "NS",         "NS",          "NS",        "N",         "N",          "MX",        ""};
 
+        // Every illi from 0 to 999, so they only have to be built once
+        private static final String[] ILLIS = new String[1000];
+
+        static {
+            for (short i = 0; i < ILLIS.length; i++) {
+                ILLIS[i] = buildIlli(i);
+            }
+        }
+
+        // Recently generated illions, least recently used first. Numbers of similar sizes need the same illions again and again.
+        // Huge exponents have illions millions of chars long, so the cache is also bounded by its chars, and names longer
+        // than a quarter of that aren't kept, so one of them never pushes out all the others.
+        private static final long MAX_CACHED_CHARS = 1 << 22; // 4M chars, at most 8 MB
+        private static final int MAX_CACHED_NAME_LENGTH = (int) (MAX_CACHED_CHARS / 4);
+        private static int cacheCapacity = 1024;
+        private static long cachedChars;
+        private static long cacheHits, cacheMisses;
+        private static final Map<BigInteger, String> CACHE = new LinkedHashMap<>(16, 0.75f, true);
+
         private static String generateIllion(BigInteger ordinal) { // Returns the ordinal-th illion, or 1000 * 1000^ordinal in text.
+            synchronized (CACHE) {
+                String cached = CACHE.get(ordinal);
+
+                if (cached != null) {
+                    cacheHits++;
+                    return cached;
+                }
+                cacheMisses++;
+            }
+
+            String illion = buildIllion(ordinal);
+
+            synchronized (CACHE) {
+                if (cacheCapacity > 0 && illion.length() <= MAX_CACHED_NAME_LENGTH) {
+                    String previous = CACHE.put(ordinal, illion); // Another thread may have put it first
+                    cachedChars += illion.length() - (previous == null ? 0 : previous.length());
+                    trimCache();
+                }
+            }
+
+            return illion;
+        }
+
+        private static void setCacheCapacity(int capacity) {
+            synchronized (CACHE) {
+                cacheCapacity = capacity;
+                trimCache();
+            }
+        }
+
+        private static void trimCache() { // Removes the least recently used illions that don't fit anymore. Called holding CACHE.
+            Iterator<String> iterator = CACHE.values().iterator();
+            while (CACHE.size() > cacheCapacity || cachedChars > MAX_CACHED_CHARS) {
+                cachedChars -= iterator.next().length();
+                iterator.remove();
+            }
+        }
+
+        private static String buildIllion(BigInteger ordinal) {
             StringBuilder converted = new StringBuilder();
 
             if (ordinal.compareTo(BigInteger.valueOf(1000)) < 0) {
@@ -114,6 +512,10 @@ public class Converter {
 
         // Generate the base illi for each power of 1000 (For example, milli (million without on)
         protected static String generateIlli(short ordinal) {
+            return ILLIS[ordinal];
+        }
+
+        private static String buildIlli(short ordinal) {
 
             if (ordinal <= 9) return ILLIONS[ordinal]; // Million - Nonillion
 
@@ -144,9 +546,88 @@ public class Converter {
         }
     }
 
+    // An illion ordinal stored as base 1000 limbs (like the groups of a number) together with its name.
+    // Counting down usually only changes the last limb, so only the end of the name has to be rebuilt.
+    private static class IllionCounter {
+        private short[] limbs;
+        private int[] limbStarts; // Where the illi of each limb starts in name
+        private int firstChangedLimb; // The name has to be rebuilt from this limb
+        private final StringBuilder name = new StringBuilder();
+        private int nameLength; // For getNameLength
+
+        private IllionCounter(BigInteger ordinal) {
+            this(ordinal, false);
+        }
+
+        // If lengthOnly is true, the name is never built and only getNameLength can be used
+        private IllionCounter(BigInteger ordinal, boolean lengthOnly) {
+            limbs = getGroupsOfThousands(ordinal);
+            limbStarts = new int[limbs.length];
+
+            if (!lengthOnly) name.append(IllionGenerator.generateIllion(ordinal)); // Comes from the cache if this illion was used recently
+            for (int i = 1; i < limbs.length; i++) {
+                limbStarts[i] = limbStarts[i - 1] + getIlli(i - 1).length();
+            }
+            firstChangedLimb = lengthOnly ? 0 : limbs.length;
+        }
+
+        private String getIlli(int limb) {
+            return limbs.length > 1 && limbs[limb] == 0 ? "nilli" : IllionGenerator.generateIlli(limbs[limb]);
+        }
+
+        private void decrement() { // The ordinal has to be more than zero
+            int i = limbs.length - 1;
+
+            while (limbs[i] == 0) { // Borrow from the next limb, like 1000 - 1 = 999
+                limbs[i--] = 999;
+            }
+            limbs[i]--;
+
+            if (i == 0 && limbs[0] == 0 && limbs.length > 1) { // The first limb is gone, so every limb moves
+                limbs = Arrays.copyOfRange(limbs, 1, limbs.length);
+                limbStarts = new int[limbs.length];
+                firstChangedLimb = 0;
+            } else {
+                firstChangedLimb = Math.min(firstChangedLimb, i);
+            }
+        }
+
+        private CharSequence getName() { // Same as IllionGenerator.generateIllion for the current ordinal
+            if (firstChangedLimb < limbs.length) {
+                name.setLength(limbStarts[firstChangedLimb]); // Keeps the illis of the limbs that didn't change
+
+                for (int i = firstChangedLimb; i < limbs.length; i++) {
+                    limbStarts[i] = name.length();
+                    name.append(getIlli(i));
+                }
+
+                name.append("on");
+                firstChangedLimb = limbs.length;
+            }
+
+            return name;
+        }
+
+        private int getNameLength() { // Same as getName().length(), but only adds up the lengths of the illis that changed
+            if (firstChangedLimb < limbs.length) {
+                int length = limbStarts[firstChangedLimb];
+
+                for (int i = firstChangedLimb; i < limbs.length; i++) {
+                    limbStarts[i] = length;
+                    length += getIlli(i).length();
+                }
+
+                nameLength = length + 2; // "on"
+                firstChangedLimb = limbs.length;
+            }
+
+            return nameLength;
+        }
+    }
+
     private static class TwoDigitNumbers {
-        private static final Map<Integer, String> NUMBERS = new HashMap<>();
-        private static final Map<Integer, String> NUMBERS_WITHOUT_DASH = new HashMap<>();
+        private static final String[] NUMBERS = new String[100];
+        private static final String[] NUMBERS_WITHOUT_DASH = new String[100];
 
         private TwoDigitNumbers() {}
 
@@ -158,19 +639,19 @@ public class Converter {
             String[] tens = {"zero", "ten", "twenty", "thirty", "forty", "fifty", "sixty", "seventy", "eighty", "ninety"};
 
             for (int i = 0; i < toTeens.length; i++) { // Put from 0 to 19
-                NUMBERS.put(i, toTeens[i]);
+                NUMBERS[i] = NUMBERS_WITHOUT_DASH[i] = toTeens[i];
             }
 
             for (int i = 2; i <= 9; i++) {
                 String ten = tens[i];
 
-                NUMBERS.put(i * 10, ten);
+                NUMBERS[i * 10] = NUMBERS_WITHOUT_DASH[i * 10] = ten;
 
                 for (int j = 1; j < 10; j++) {
                     int number = i * 10 + j;
 
-                    NUMBERS.put(number, ten + "-" + toTeens[j]);
-                    NUMBERS_WITHOUT_DASH.put(number, ten + " " + toTeens[j]);
+                    NUMBERS[number] = ten + "-" + toTeens[j];
+                    NUMBERS_WITHOUT_DASH[number] = ten + " " + toTeens[j];
                 }
             }
         }
@@ -180,7 +661,7 @@ public class Converter {
 //            throw new IndexOutOfBoundsException("Number must be between 0 and 99. Parameter is " + number);
 //        }
 
-            return !hyphens && NUMBERS_WITHOUT_DASH.containsKey(number) ? NUMBERS_WITHOUT_DASH.get(number) : NUMBERS.get(number);
+            return hyphens ? NUMBERS[number] : NUMBERS_WITHOUT_DASH[number];
         }
 
         public static String get(int number) {
@@ -189,19 +670,115 @@ public class Converter {
 
     }
 
+    // Every group from 0 to 999 spelled out (e.g. "one hundred twenty-three"), with and without hyphens
+    private static class ThreeDigitNumbers {
+        private static final String[] NUMBERS = new String[1000];
+        private static final String[] NUMBERS_WITHOUT_DASH = new String[1000];
+
+        private ThreeDigitNumbers() {}
+
+        static {
+            for (int i = 0; i < NUMBERS.length; i++) {
+                NUMBERS[i] = buildHundreds(i, true);
+                NUMBERS_WITHOUT_DASH[i] = buildHundreds(i, false);
+            }
+        }
+
+        public static String get(int number, boolean hyphens) {
+            return hyphens ? NUMBERS[number] : NUMBERS_WITHOUT_DASH[number];
+        }
+
+    }
+
+    // Sets how many illions are kept in the cache (0 disables it)
+    protected static void setIllionCacheCapacity(int capacity) {
+        if (capacity < 0) throw new IllegalArgumentException("The illion cache capacity can't be negative");
+        IllionGenerator.setCacheCapacity(capacity);
+    }
+
+    protected static long getIllionCacheHits() {
+        synchronized (IllionGenerator.CACHE) {
+            return IllionGenerator.cacheHits;
+        }
+    }
+
+    protected static long getIllionCacheMisses() {
+        synchronized (IllionGenerator.CACHE) {
+            return IllionGenerator.cacheMisses;
+        }
+    }
+
+    // The part of an illion name for one base 1000 limb of its ordinal, like "milli" for 1 or "nilli" for 0 (for SpellingParser)
+    protected static String getIlli(int limb) {
+        return limb == 0 ? "nilli" : IllionGenerator.generateIlli((short) limb);
+    }
+
     // Returns an array of the thousand groups (e.g. [12, 345, 678] for the number 12,345,678), grouping as ... millions, thousands, units
     protected static short[] getGroupsOfThousands(BigInteger number) {
         if (number.signum() == -1) number = number.abs();
-        int length = number.toString().length();
-        int groupCount = (length + 2) / 3;
-        short[] groups = new short[groupCount];
 
-        for (int i = groupCount - 1; i >= 0; i--) {
-            groups[i] = number.remainder(BigInteger.valueOf(1000)).shortValue();
-            number = number.divide(BigInteger.valueOf(1000));
+        // Upper bound for the digit count from the bit length, so the number doesn't need to be turned into a String
+        int maxDigits = (int) (number.bitLength() * LOG_10_OF_2) + 1;
+        short[] groups = new short[(maxDigits + 2) / 3];
+
+        fillGroups(number, groups, 0, groups.length);
+
+        int leadingZeroGroups = 0; // The estimate may be one group too many
+        while (leadingZeroGroups < groups.length - 1 && groups[leadingZeroGroups] == 0) leadingZeroGroups++;
+
+        return leadingZeroGroups == 0 ? groups : Arrays.copyOfRange(groups, leadingZeroGroups, groups.length);
+    }
+
+    // Same as above, but reads the groups directly from the digit characters in [start, end), so no BigInteger is needed.
+    // The groups are packed, so a number with billions of digits (read from a mapped file) doesn't need a huge short[].
+    protected static PackedGroups getGroupsOfThousands(CharSequence digits, int start, int end) {
+        while (start < end - 1 && digits.charAt(start) == '0') start++; // Skip leading zeros
+        if (start >= end) return PackedGroups.of((short) 0);
+
+        int length = end - start;
+        PackedGroups groups = PackedGroups.allocate((length + 2) / 3);
+
+        int position = start;
+        for (int i = 0; i < groups.length(); i++) {
+            int groupEnd = end - (groups.length() - 1 - i) * 3; // The first group can have less than three digits
+            int value = 0;
+
+            while (position < groupEnd) value = value * 10 + (digits.charAt(position++) - '0');
+            groups.set(i, value);
         }
 
         return groups;
     }
 
+    // Splits the number into groups[from, to) by dividing by 1000^(2^k), then does the same for both halves.
+    // The number must be less than 1000^(to - from). This is a lot faster than dividing by 1000 for each group, which is quadratic.
+    private static void fillGroups(BigInteger number, short[] groups, int from, int to) {
+        if (number.bitLength() < 63) { // Small enough for a long
+            long value = number.longValue();
+
+            for (int i = to - 1; i >= from && value != 0; i--) {
+                groups[i] = (short) (value % 1000);
+                value /= 1000;
+            }
+            return;
+        }
+
+        int exponent = 31 - Integer.numberOfLeadingZeros(to - from - 1); // Largest k where 2^k groups is less than to - from
+        BigInteger[] quotientAndRemainder = number.divideAndRemainder(getPowerOfThousand(exponent));
+        int middle = to - (1 << exponent);
+
+        fillGroups(quotientAndRemainder[0], groups, from, middle);
+        fillGroups(quotientAndRemainder[1], groups, middle, to);
+    }
+
+    // Returns 1000^(2^exponent). They are cached since the same ones are needed for every number.
+    private static synchronized BigInteger getPowerOfThousand(int exponent) {
+        while (POWERS_OF_THOUSAND.size() <= exponent) {
+            BigInteger last = POWERS_OF_THOUSAND.get(POWERS_OF_THOUSAND.size() - 1);
+            POWERS_OF_THOUSAND.add(last.multiply(last));
+        }
+
+        return POWERS_OF_THOUSAND.get(exponent);
+    }
+
 }
\ No newline at end of file
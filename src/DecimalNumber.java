@@ -1,48 +1,161 @@
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.util.concurrent.ForkJoinPool;
 
 public class DecimalNumber implements Number {
-    private final BigDecimal number;
-    private final short[] integerPartArray;
-    private final BigDecimal decimalPart;
-
-    private final StringBuilder converted = new StringBuilder();
+    private final CharSequence number;
+    private final boolean negative;
+    private final PackedGroups integerPartArray;
+    private final int fractionStart, fractionEnd; // Where the digits after the decimal point are in number
+    private final int strippedFractionEnd; // fractionEnd without the trailing zeros, which are not spelled
+    private final int spelledFractionStart; // After the zeros right after the decimal point if they're spelled as a count
+    private final boolean hasFraction;
+    private final boolean hyphens;
+    private final boolean groupRepeatedDigits; // Spell runs of the same digit after the decimal point as a count
 
     public DecimalNumber(BigDecimal number, boolean hyphens) {
+        this(number.toPlainString(), hyphens);
+    }
+
+    public DecimalNumber(CharSequence number, boolean hyphens) {
+        this(number, hyphens, false);
+    }
+
+    // Reads the number directly from its characters, so the value never has to become a BigInteger or BigDecimal
+    public DecimalNumber(CharSequence number, boolean hyphens, boolean groupRepeatedDigits) {
         this.number = number;
-        BigInteger integerPart = number.toBigInteger();
-        this.integerPartArray = Converter.getGroupsOfThousands(integerPart);
-        this.decimalPart = number.remainder(BigDecimal.ONE).abs();
+        this.hyphens = hyphens;
+        this.groupRepeatedDigits = groupRepeatedDigits;
+
+        int[] parts = findParts(number);
+        boolean minus = number.charAt(0) == '-';
+        int integerStart = parts[0], integerEnd = parts[1];
+        this.fractionStart = parts[2];
+        this.fractionEnd = parts[3];
+
+        Profiler.Stage previous = Profiler.enabled ? Profiler.enter(Profiler.Stage.GROUP_SPLIT) : null;
+        this.integerPartArray = Converter.getGroupsOfThousands(number, integerStart, integerEnd);
+        if (Profiler.enabled) {
+            Profiler.count(Profiler.Stage.GROUP_SPLIT, integerEnd - integerStart);
+            Profiler.enter(previous);
+        }
+
+        int strippedFractionEnd = fractionEnd;
+        while (strippedFractionEnd > fractionStart && number.charAt(strippedFractionEnd - 1) == '0') strippedFractionEnd--;
+        this.strippedFractionEnd = strippedFractionEnd;
+        this.hasFraction = strippedFractionEnd > fractionStart;
+
+        int zerosEnd = fractionStart;
+        while (zerosEnd < strippedFractionEnd && number.charAt(zerosEnd) == '0') zerosEnd++;
+        this.spelledFractionStart = Converter.isCountedLeadingZeros(BigInteger.valueOf(zerosEnd - fractionStart), groupRepeatedDigits) ? zerosEnd : fractionStart;
 
-        if (number.signum() == -1) converted.append("negative ");
+        this.negative = minus && (hasFraction || integerPartArray.length() > 1 || integerPartArray.get(0) != 0); // -0 is just zero
+    }
+
+    // Throws NumberFormatException if number is not like -1234.5, the same way the constructor does. For NumberSpeller,
+    // which reads numbers as a BigDecimal when they're scaled, so it doesn't accept more than this does.
+    static void validate(CharSequence number) {
+        findParts(number);
+    }
+
+    // Where the integer digits and the digits after the decimal point are: {integerStart, integerEnd, fractionStart, fractionEnd}
+    private static int[] findParts(CharSequence number) {
+        int length = number.length();
+        int position = 0;
+
+        if (length > 0 && (number.charAt(0) == '-' || number.charAt(0) == '+')) position++;
+
+        int integerStart = position;
+        while (position < length && isDigit(number.charAt(position))) position++;
+        int integerEnd = position;
+
+        int fractionStart = integerEnd;
+        if (position < length && number.charAt(position) == '.') {
+            fractionStart = ++position;
+            while (position < length && isDigit(number.charAt(position))) position++;
+        }
+        int fractionEnd = position;
+
+        if (position != length || (integerStart == integerEnd && fractionStart == fractionEnd)) {
+            throw new NumberFormatException("Invalid character in number at index " + position);
+        }
 
-        converted.append(Converter.convertInteger(integerPartArray, hyphens, BigInteger.ZERO)); // Integer part conversion
-        if (decimalPart.signum() != 0) converted.append(" point ").append(Converter.convertDecimal(decimalPart)); // Decimal part conversion
+        return new int[] {integerStart, integerEnd, fractionStart, fractionEnd};
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    @Override
+    public void writeTo(Appendable out, ForkJoinPool pool) throws IOException {
+        if (negative) out.append("negative ");
+
+        Converter.writeInteger(integerPartArray, hyphens, BigInteger.ZERO, out, pool); // Integer part conversion
+        if (hasFraction) { // Decimal part conversion
+            out.append(" point ");
+            writeLeadingZeros(out);
+            Converter.writeDecimal(number, spelledFractionStart, strippedFractionEnd, groupRepeatedDigits, hyphens, out);
+        }
+    }
+
+    private void writeLeadingZeros(Appendable out) throws IOException { // Only if they're spelled as a count, like ScientificNumber does
+        if (spelledFractionStart == fractionStart) return;
+
+        Converter.writeRepeatedDigit(0, BigInteger.valueOf(spelledFractionStart - fractionStart), hyphens, out);
+        out.append(" ");
     }
 
     @Override
     public StringBuilder getConverted() {
-        return converted;
+        return Converter.appendTo(new StringBuilder(), this::writeTo);
     }
 
     @Override public String getConvertedString() {
-        return converted.toString();
+        return getConverted().toString();
     }
 
     @Override
-    public String[] getFormatted() {
-        StringBuilder formatted = new StringBuilder();
+    public SpelledText getSpelledText(boolean capitalize) {
+        SpelledText.Builder text = new SpelledText.Builder(hyphens);
 
-        for (short value : integerPartArray) {
-            formatted.append(",").append(value);
+        if (negative) text.text("negative ");
+        text.integer(integerPartArray, BigInteger.ZERO);
+        if (hasFraction) {
+            StringBuilder point = Converter.appendTo(new StringBuilder(" point "), this::writeLeadingZeros);
+            text.text(point.toString()).digits(number, spelledFractionStart, strippedFractionEnd, groupRepeatedDigits);
         }
 
-        formatted.deleteCharAt(0);
-        if (decimalPart.signum() != 0) formatted.append(".").append(decimalPart.toString().substring(2));
+        return text.build(capitalize);
+    }
+
+    @Override
+    public String[] getFormatted() { // Put straight into a char array of the right size
+        FormatSymbols symbols = FormatSymbols.DEFAULT;
+        String decimalSeparator = symbols.decimalSeparator();
+        char[] formatted = new char[Math.toIntExact((negative ? 1 : 0) + Converter.getGroupDigitsLength(integerPartArray, symbols.groupSeparator())
+                + (hasFraction ? decimalSeparator.length() + fractionEnd - fractionStart : 0))]; // Throws if it's too long for a String
+        int position = 0;
 
-        if (number.signum() == -1) formatted.insert(0, "-");
+        if (negative) formatted[position++] = '-';
+        position = Converter.putGroupDigits(integerPartArray.cursor(0), true, integerPartArray.length(), symbols.groupSeparator(), formatted, position);
+
+        if (hasFraction) {
+            decimalSeparator.getChars(0, decimalSeparator.length(), formatted, position);
+            position += decimalSeparator.length();
+            for (int i = fractionStart; i < fractionEnd; i++) formatted[position++] = number.charAt(i);
+        }
+
+        return new String[] {new String(formatted)};
+    }
+
+    @Override
+    public void writeFormatted(Appendable out, FormatSymbols symbols, boolean eNotation) throws IOException {
+        if (negative) out.append('-');
 
-        return new String[] {formatted.toString()};
+        Converter.writeGroupDigits(integerPartArray, symbols.groupSeparator(), out);
+        if (hasFraction) out.append(symbols.decimalSeparator()).append(number, fractionStart, fractionEnd);
     }
 
     @Override
@@ -0,0 +1,312 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntConsumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Converts every line of many files (every file in a directory, or the ones matching a pattern like numbers/*.txt)
+// into an output directory, with the same names. Each file goes through a pipeline: it's read with an
+// AsynchronousFileChannel, queued for a pool of workers that convert it line by line with BatchConverter, and written
+// with another AsynchronousFileChannel, so different files are read, converted and written at the same time.
+// Only a few files per worker, and only as many as fit in half the heap with their spelled text, can be between being
+// read and being written, so when the workers fall behind, reading waits for them instead of filling the memory.
+// Files too large for that are streamed instead, one line at a time, on a worker of their own.
+public class FileBatchConverter {
+    private static final int FILES_PER_WORKER = 4; // Files that can be read ahead of each worker
+    private static final long MEMORY_PER_INPUT_BYTE = 100; // The file, its text, and its spelled text (about 25 times longer) three times over
+    private static final int MEMORY_PERMITS = (int) Math.min(Integer.MAX_VALUE, Runtime.getRuntime().maxMemory() / 2 >> 10); // In KiB
+    private static final int STREAM_BUFFER_SIZE = 1 << 16;
+    private static final String PATTERN_CHARACTERS = "*?[{";
+
+    private final BatchConverter converter;
+    private final int workers;
+    private final boolean force; // Overwrite output files that already exist
+
+    private final LongAdder files = new LongAdder(), failedFiles = new LongAdder();
+    private final LongAdder lines = new LongAdder(), invalidLines = new LongAdder();
+    private final LongAdder bytesRead = new LongAdder(), bytesWritten = new LongAdder();
+
+    public record Summary(long files, long failedFiles, long lines, long invalidLines, long bytesRead, long bytesWritten, long totalNanos) {
+        public double getFilesPerSecond() {
+            return files / (totalNanos / 1_000_000_000.0);
+        }
+
+        public double getMegabytesReadPerSecond() {
+            return bytesRead / 1_000_000.0 / (totalNanos / 1_000_000_000.0);
+        }
+
+        public double getMegabytesWrittenPerSecond() {
+            return bytesWritten / 1_000_000.0 / (totalNanos / 1_000_000_000.0);
+        }
+    }
+
+    public FileBatchConverter(BatchConverter converter, int workers, boolean force) {
+        this.converter = converter;
+        this.workers = workers;
+        this.force = force;
+    }
+
+    public static boolean isPattern(String path) {
+        for (char c : PATTERN_CHARACTERS.toCharArray()) {
+            if (path.indexOf(c) != -1) return true;
+        }
+        return false;
+    }
+
+    // Converts the files in the directory (and its subdirectories), or the ones matching the pattern, into outputDirectory
+    public Summary convertAll(String directoryOrPattern, Path outputDirectory) throws IOException, InterruptedException {
+        long startTime = System.nanoTime();
+        files.reset();
+        failedFiles.reset();
+        lines.reset();
+        invalidLines.reset();
+        bytesRead.reset();
+        bytesWritten.reset();
+
+        Path base = Path.of(directoryOrPattern);
+        PathMatcher matcher = null; // null for every file
+        if (isPattern(directoryOrPattern)) {
+            int separator = getLastSeparatorBeforePattern(directoryOrPattern);
+            base = Path.of(separator == -1 ? "" : separator == 0 ? "/" : directoryOrPattern.substring(0, separator));
+            matcher = FileSystems.getDefault().getPathMatcher("glob:" + directoryOrPattern.substring(separator + 1));
+        }
+
+        List<Path> inputs = findFiles(base, matcher, outputDirectory);
+        Files.createDirectories(outputDirectory);
+
+        int maxFiles = workers * FILES_PER_WORKER;
+        Semaphore filesInFlight = new Semaphore(maxFiles); // Taken when a file starts being read, given back when it's written
+        Semaphore memoryInFlight = new Semaphore(MEMORY_PERMITS); // The same, for the memory the files need
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.SECONDS, new ArrayBlockingQueue<>(maxFiles)); // Never full, because of filesInFlight
+
+        try {
+            for (Path input : inputs) {
+                FileJob job = new FileJob(input, outputDirectory.resolve(base.relativize(input).toString()), filesInFlight, memoryInFlight, pool);
+
+                filesInFlight.acquire(); // Waits here when the workers are behind
+                memoryInFlight.acquire(job.memory);
+                job.start();
+            }
+            filesInFlight.acquire(maxFiles); // Every file has been written
+            memoryInFlight.acquire(MEMORY_PERMITS);
+        } finally {
+            pool.shutdown();
+        }
+
+        return new Summary(files.sum(), failedFiles.sum(), lines.sum(), invalidLines.sum(), bytesRead.sum(), bytesWritten.sum(),
+                System.nanoTime() - startTime);
+    }
+
+    // The directories before it are the base directory, the pattern is matched against the paths in it
+    private static int getLastSeparatorBeforePattern(String pattern) {
+        int firstPatternCharacter = pattern.length();
+        for (char c : PATTERN_CHARACTERS.toCharArray()) {
+            int index = pattern.indexOf(c);
+            if (index != -1) firstPatternCharacter = Math.min(firstPatternCharacter, index);
+        }
+
+        return Math.max(pattern.lastIndexOf('/', firstPatternCharacter), pattern.lastIndexOf('\\', firstPatternCharacter));
+    }
+
+    // Sorted, so they're converted in the same order every time. Files in outputDirectory are left out.
+    private static List<Path> findFiles(Path base, PathMatcher matcher, Path outputDirectory) throws IOException {
+        Path absoluteOutput = outputDirectory.toAbsolutePath().normalize();
+
+        try (Stream<Path> paths = Files.walk(base)) {
+            return paths.filter(Files::isRegularFile)
+                    .filter(path -> matcher == null || matcher.matches(base.relativize(path)))
+                    .filter(path -> !path.toAbsolutePath().normalize().startsWith(absoluteOutput))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    // One file on its way through the pipeline. Every step after reading starts when the one before it finishes.
+    private class FileJob {
+        private final Path input, output;
+        private final Semaphore filesInFlight, memoryInFlight;
+        private final ThreadPoolExecutor pool;
+        private final long size;
+        private final boolean streamed; // Too large to keep in memory with its spelled text
+        private final int memory; // Permits of memoryInFlight, all of them if it's streamed
+        private AsynchronousFileChannel channel; // The one being read or written
+        private ByteBuffer buffer;
+        private BatchConverter.LineCount lineCount;
+
+        private FileJob(Path input, Path output, Semaphore filesInFlight, Semaphore memoryInFlight, ThreadPoolExecutor pool) {
+            this.input = input;
+            this.output = output;
+            this.filesInFlight = filesInFlight;
+            this.memoryInFlight = memoryInFlight;
+            this.pool = pool;
+
+            long size;
+            try {
+                size = Files.size(input);
+            } catch (IOException e) { // Reported when it's read
+                size = 0;
+            }
+            this.size = size;
+
+            long neededPermits = size * MEMORY_PER_INPUT_BYTE >> 10;
+            streamed = neededPermits >= MEMORY_PERMITS;
+            memory = streamed ? MEMORY_PERMITS : (int) Math.max(neededPermits, 1);
+        }
+
+        private void start() {
+            try {
+                if (!force && Files.exists(output)) throw new FileAlreadyExistsException(output.toString()); // Checked again when it's written
+            } catch (IOException e) {
+                fail(e);
+                return;
+            }
+
+            if (streamed) pool.execute(this::convertStreamed);
+            else read();
+        }
+
+        private void read() {
+            try {
+                buffer = ByteBuffer.allocate((int) size);
+                channel = AsynchronousFileChannel.open(input, StandardOpenOption.READ);
+                channel.read(buffer, 0, null, handler(this::readMore));
+            } catch (Throwable e) {
+                fail(e);
+            }
+        }
+
+        private void readMore(int count) {
+            if (count != -1 && buffer.hasRemaining()) { // Reads can stop early
+                channel.read(buffer, buffer.position(), null, handler(this::readMore));
+                return;
+            }
+
+            close();
+            pool.execute(this::convert);
+        }
+
+        private void convert() { // On a worker
+            try {
+                String text = new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8);
+                StringBuilder converted = new StringBuilder();
+
+                lineCount = converter.convertLines(text.lines().iterator(), input.toString(), converted);
+                buffer = ByteBuffer.wrap(converted.toString().getBytes(StandardCharsets.UTF_8));
+
+                if (output.getParent() != null) Files.createDirectories(output.getParent());
+                channel = AsynchronousFileChannel.open(output, StandardOpenOption.WRITE, getCreateOption(), StandardOpenOption.TRUNCATE_EXISTING);
+                channel.write(buffer, 0, null, handler(this::writeMore));
+            } catch (Throwable e) {
+                fail(e);
+            }
+        }
+
+        // On a worker, with all of memoryInFlight, so only one line and its spelled text are in memory at a time
+        private void convertStreamed() {
+            try {
+                if (output.getParent() != null) Files.createDirectories(output.getParent());
+
+                try (BufferedReader reader = new BufferedReader(new InputStreamReader(Files.newInputStream(input), StandardCharsets.UTF_8), STREAM_BUFFER_SIZE);
+                     Writer writer = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(output, StandardOpenOption.WRITE, getCreateOption(),
+                             StandardOpenOption.TRUNCATE_EXISTING), StandardCharsets.UTF_8), STREAM_BUFFER_SIZE)) {
+                    lineCount = converter.convertLines(reader.lines().iterator(), input.toString(), writer);
+                }
+
+                finish(Files.size(input), Files.size(output));
+            } catch (Throwable e) {
+                fail(e);
+            }
+        }
+
+        private StandardOpenOption getCreateOption() {
+            return force ? StandardOpenOption.CREATE : StandardOpenOption.CREATE_NEW;
+        }
+
+        private void writeMore(int count) {
+            if (buffer.hasRemaining()) {
+                channel.write(buffer, buffer.position(), null, handler(this::writeMore));
+                return;
+            }
+
+            close();
+            finish(size, buffer.limit());
+        }
+
+        private void finish(long read, long written) {
+            files.increment();
+            lines.add(lineCount.count());
+            invalidLines.add(lineCount.errors());
+            bytesRead.add(read);
+            bytesWritten.add(written);
+            release();
+        }
+
+        private void release() {
+            filesInFlight.release();
+            memoryInFlight.release(memory);
+        }
+
+        // Called with anything a step throws, even an OutOfMemoryError, so the permits are always given back
+        private void fail(Throwable e) {
+            buffer = null; // Frees the memory first, in case it ran out
+            try {
+                close();
+                failedFiles.increment();
+                System.err.println(e instanceof FileAlreadyExistsException
+                        ? output + " already exists, use --force to overwrite it"
+                        : "Error converting " + input + ": " + e.getMessage());
+            } finally {
+                release();
+            }
+        }
+
+        private void close() {
+            if (channel == null) return;
+
+            try {
+                channel.close();
+            } catch (IOException e) { // Nothing was left to read or write
+            }
+            channel = null;
+        }
+
+        // Calls next when a read or write is done, or fail if it couldn't be done
+        private CompletionHandler<Integer, Void> handler(IntConsumer next) {
+            return new CompletionHandler<>() {
+                @Override
+                public void completed(Integer count, Void attachment) {
+                    try {
+                        next.accept(count);
+                    } catch (Throwable e) {
+                        fail(e);
+                    }
+                }
+
+                @Override
+                public void failed(Throwable e, Void attachment) {
+                    fail(e);
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,20 @@
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+
+// The separators used to show a number in digits with -s, like "1,234.5", or "1.234,5" in German
+public record FormatSymbols(String groupSeparator, String decimalSeparator) {
+    public static final FormatSymbols DEFAULT = new FormatSymbols(",", ".");
+
+    public FormatSymbols {
+        if (groupSeparator == null || decimalSeparator == null) throw new NullPointerException("The separators can't be null");
+    }
+
+    public static FormatSymbols forLocale(Locale locale) {
+        DecimalFormatSymbols symbols = DecimalFormatSymbols.getInstance(locale);
+        return new FormatSymbols(String.valueOf(symbols.getGroupingSeparator()), String.valueOf(symbols.getDecimalSeparator()));
+    }
+
+    public FormatSymbols withGroupSeparator(String groupSeparator) {
+        return new FormatSymbols(groupSeparator, decimalSeparator);
+    }
+}
@@ -6,29 +6,58 @@ import picocli.CommandLine.Command;
 import java.io.*;
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Locale;
 import java.util.NoSuchElementException;
 import java.util.Scanner;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
 
 @Command(mixinStandardHelpOptions = true,
         name = "numsay",
         version = "Numsay 1.0.0",
         description = "A CLI tool that spells out extremely large numbers using Conway and Guy's system.")
 public class Main implements Callable<Integer> {
-    @Parameters(index = "0", arity = "0..1", description = "The number to spell") String number;
+    @Parameters(arity = "0..*", paramLabel = "<number>", description = "The number to spell (or the words of a spelled number with -r)") List<String> numberWords;
+    private String number;
     @Option(names = {"--no-hyphens", "-n"}, description = "Disable hyphens (for example, \"ninety nine\" instead of \"ninety-nine\")") boolean noHyphens;
     @Option(names = "-e", description = "Use scientific notation (provide exponent after -e)") String exponent;
     @Option(names = {"-s", "--show-number"}, description = "Format and show the number") boolean showNumber;
     @Option(names = {"-E", "--show-e-notation"}, description = "Show scientific numbers in E notation (-s and -e is required)") boolean eNotation;
+    @Option(names = "--locale", paramLabel = "<language tag>", description = "Show the number with -s using the separators of this locale (for example, de-DE shows 1.234,5)") String locale;
+    @Option(names = "--group-separator", paramLabel = "<separator>", description = "Put this between the groups of three digits with -s instead of a comma (can be empty)") String groupSeparator;
     @Option(names = {"-t", "--execution-time"}, description = "Show execution time") boolean showExecutionTime;
+    @Option(names = "--profile", arity = "0..1", paramLabel = "<format>", fallbackValue = "text", description = "Show the time, bytes, allocations and garbage collections of every stage on the standard error (text or json)") String profileFormat;
     @Option(names = {"-f", "--file"}, description = "Read the number from a file (it will only read the first line and ignore the rest)") String filePath;
     @Option(names = {"-o", "--output"}, description = "Output the number to a file") String outputPath;
+    @Option(names = "--force", description = "Overwrite the output file (or the files in the output directory with -b) without asking") boolean force;
+    @Option(names = {"-p", "--parallel"}, description = "Convert the number using this many threads (0 uses all processors)") Integer threads;
+    @Option(names = "--range", paramLabel = "<start:end>", description = "Only write the characters from start to end of the spelled number (for example, 1000:2000, or 1000: for the rest), without spelling the others") String range;
+    @Option(names = {"-g", "--group-repeated"}, description = "Spell runs of the same digit after the decimal point as a count (for example, \"zero repeated five times\")") boolean groupRepeated;
+    @Option(names = "--cache", arity = "0..1", paramLabel = "<directory>", fallbackValue = "", defaultValue = "${env:NUMSAY_CACHE}", description = "Save converted numbers in a directory and reuse them (~/.numsay/cache if no directory is given, or set NUMSAY_CACHE)") String cacheDirectory;
+    @Option(names = "--cache-size", paramLabel = "<megabytes>", defaultValue = "1024", description = "The most space the cache can use, the least recently used numbers are deleted first (default: 1024)") long cacheMegabytes;
+    @Option(names = "--spill", paramLabel = "<megabytes>", description = "Keep the digit groups of numbers that take more memory than this in a temporary file instead (default: a quarter of the maximum heap)") Long spillMegabytes;
+    @Option(names = "--serve", paramLabel = "<port>", description = "Spell numbers sent over HTTP on this port (only from this computer), see the README") Integer servePort;
+    @Option(names = {"-r", "--reverse"}, description = "Read a spelled number (from the arguments or -f) and show it in digits") boolean reverse;
+    @Option(names = {"-b", "--batch"}, description = "Convert every line of the file (-f) or of the standard input, one number per line") boolean batch;
     @Option(names = {"-i", "--info"}, description = "Show more information about this program") boolean infoRequested;
 
     @Option(names = {"-V", "--version"}, versionHelp = true, description = "Print version information") boolean versionInfoRequested;
     @Option(names = {"-h", "--help"}, usageHelp = true, description = "Show this help message") boolean usageHelpRequested;
 
     private static final CommandLine commandLine = new CommandLine(new Main());
+    private static final int OUTPUT_BUFFER_SIZE = 1 << 16;
+    private static final int MAX_PLAIN_EXPONENT = 1_000_000; // -r shows numbers with larger exponents in E notation
+    private static final Path DEFAULT_CACHE_DIRECTORY = Path.of(System.getProperty("user.home"), ".numsay", "cache");
 
     public static void main(String... args) {
         int exitCode = args.length != 0
@@ -45,6 +74,40 @@ public class Main implements Callable<Integer> {
             return 0;
         }
 
+        number = numberWords == null || numberWords.isEmpty() ? null : String.join(" ", numberWords);
+        if (profileFormat != null && (reverse || batch || servePort != null)) {
+            throw new CommandLine.ParameterException(commandLine,
+                    "--profile only works when spelling one number");
+        }
+        if (reverse) return callReverse();
+        if (numberWords != null && numberWords.size() > 1) {
+            throw new CommandLine.ParameterException(commandLine,
+                    "Please provide only one number (spelled numbers with spaces need -r, --reverse)");
+        }
+        if (batch) return callBatch();
+        if (servePort != null) return callServe();
+
+        if (profileFormat == null && !Profiler.isRecording()) return convert();
+
+        Profiler.start();
+        try {
+            int exitCode = convert();
+            Profiler.stop();
+            Profiler.commitEvents();
+
+            if (exitCode == 0 && "json".equals(profileFormat)) Profiler.printJson(System.err);
+            else if (exitCode == 0 && profileFormat != null) Profiler.printText(System.err);
+            return exitCode;
+        } finally {
+            Profiler.stop(); // If the conversion failed
+        }
+    }
+
+    // Spells the number from the command line or the file
+    private int convert() {
+        CharSequence numberText = number;
+        long startTime = System.nanoTime();
+
         if (filePath == null && number == null) {
             throw new CommandLine.ParameterException(commandLine,
                     "Please provide a number or a file with -f, --file");
@@ -52,70 +115,71 @@ public class Main implements Callable<Integer> {
             throw new CommandLine.ParameterException(commandLine,
                     "Please provide a number or a file with -f, --file, not both");
         } else if (filePath != null) {
-            try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
-                number = reader.readLine(); // Reads the first line
+            try {
+                Profiler.enter(Profiler.Stage.READ);
+                numberText = MappedCharSequence.readFirstLine(Path.of(filePath)); // Reads the first line without copying it into a String
+                Profiler.count(Profiler.Stage.READ, numberText.length());
                 if (outputPath == null) System.err.println("Warning: You're reading the number from a file. If the output is too large for the terminal, use -o, --output <file> or redirect with '>' to save it to a file.\n");
-            } catch (IOException e) {
+            } catch (IOException | InvalidPathException e) {
                 System.err.println("Error reading the file: " + e.getMessage());
                 return 1;
             }
         }
 
-        if (eNotation && (exponent == null || !showNumber)) {
-            throw new CommandLine.ParameterException(commandLine,
-                    "-E, --show-e-notation requires both --show-number and -e <exponent> options to be used.");
-        }
-        if (number.contains("e") || number.contains("E")) {
-            throw new CommandLine.ParameterException(commandLine,
-                    "Please use -e for scientific notation");
-        }
-        if (exponent != null && exponent.contains(".")) {
-            throw new CommandLine.ParameterException(commandLine,
-                    "Scientific notation exponents can only be integers");
-        }
-
-        long startTime = System.nanoTime();
+        Profiler.enter(Profiler.Stage.PARSE);
+        Profiler.count(Profiler.Stage.PARSE, numberText.length());
 
+        validateOptions();
+        BigInteger exponentValue = parseExponent();
+        NumberSpeller speller = createSpeller();
         Number numberObject;
-        try {
-            numberObject = exponent == null
-                    ? new DecimalNumber(new BigDecimal(number), !noHyphens)
-                    : new ScientificNumber(new BigDecimal(number), new BigInteger(exponent), !noHyphens);
+        try { // E notation is only looked for if it fails, so huge files are scanned once
+            numberObject = speller.parse(numberText, exponentValue);
         } catch (NumberFormatException e) {
             throw new CommandLine.ParameterException(commandLine,
-                    "Please enter a valid number");
+                    hasENotation(numberText) ? "Please use -e for scientific notation" : "Please enter a valid number");
         }
 
+        Profiler.enter(null);
+        ResultCache cache = range == null ? openCache() : null; // Only whole numbers are cached
+        String cacheKey = cache == null ? null : exponentValue == null
+                ? ResultCache.key(numberText, !noHyphens, groupRepeated)
+                : ResultCache.key(new BigDecimal(numberText.toString()), exponentValue, !noHyphens, groupRepeated);
+
         long executionTime = (System.nanoTime() - startTime);
 
         if (showNumber) {
-            System.out.print(numberObject.getFormatted()[eNotation ? 1 : 0] + ": ");
-        }
+            Profiler.enter(Profiler.Stage.FORMAT);
+            Profiler.count(Profiler.Stage.FORMAT, numberText.length());
+            Writer formatted = new BufferedWriter(new OutputStreamWriter(System.out), OUTPUT_BUFFER_SIZE); // Not closed, since that would close the standard output
 
-        StringBuilder converted = numberObject.getConverted();
-        converted.setCharAt(0, Character.toUpperCase(converted.charAt(0)));
+            try { // Written straight to the output, so huge numbers are never copied into a String
+                numberObject.writeFormatted(formatted, createFormatSymbols(), eNotation);
+                formatted.write(": ");
+                formatted.flush();
+            } catch (IOException e) {
+                System.err.println("Error writing the output: " + e.getMessage());
+                return 1;
+            }
+            Profiler.enter(null);
+        }
 
         if (outputPath == null) {
-            System.out.println(converted);
-        } else {
-            if (new File(outputPath).exists()) {
-                System.out.println("The file already exists and will be overwritten, do you want to continue? (y/n)");
-
-                while (true) {
-                    String input = new Scanner(System.in).nextLine();
-                    if (input.equalsIgnoreCase("y") || input.equalsIgnoreCase("yes")) {
-                        break;
-                    } else if (input.equalsIgnoreCase("n") || input.equalsIgnoreCase("no")) {
-                        return 0;
-                    } else {
-                        System.out.println("Please enter \"y\" or \"n\"");
-                    }
-                }
-            }
+            System.out.flush(); // The converted number is written to the standard output directly, after anything printed before
 
-            try (BufferedWriter writer = new BufferedWriter(new FileWriter(outputPath))) {
-                writer.write(converted.toString());
+            try {
+                executionTime += writeConverted(speller, numberObject, new FileOutputStream(FileDescriptor.out).getChannel(), cache, cacheKey); // Not closed, since that would close the standard output
+                System.out.println();
             } catch (IOException e) {
+                System.err.println("Error writing the output: " + e.getMessage());
+                return 1;
+            }
+        } else {
+            if (new File(outputPath).exists() && !force && !confirmOverwrite()) return 0;
+
+            try (FileChannel channel = FileChannel.open(Path.of(outputPath), StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                executionTime += writeConverted(speller, numberObject, channel, cache, cacheKey);
+            } catch (IOException | InvalidPathException e) {
                 System.err.println("Error writing to file: " + e.getMessage());
                 return 1;
             }
@@ -123,11 +187,324 @@ public class Main implements Callable<Integer> {
 
         if (showExecutionTime) {
             System.out.printf("\nExecution time: %.3fms (%.6fs or %,dns)%n", executionTime / 1_000_000.0, executionTime / 1_000_000_000.0, executionTime);
+            System.out.printf("Throughput: %.3f MB/s (%,d bytes read)%n", numberText.length() / (executionTime / 1_000_000_000.0) / 1_000_000, numberText.length());
+            System.out.printf("Illion cache: %,d hits, %,d misses%n", Converter.getIllionCacheHits(), Converter.getIllionCacheMisses());
+            if (cache != null) System.out.printf("Result cache: %,d hits, %,d misses%n", cache.getHits(), cache.getMisses());
         }
 
         return 0;
     }
 
+    // Reads the spelled number and prints it in digits. Huge exponents are shown as E notation, like 15e-1000001.
+    private int callReverse() {
+        if (filePath != null && number != null) {
+            throw new CommandLine.ParameterException(commandLine,
+                    "Please provide the spelled number or a file with -f, --file, not both");
+        } else if (filePath == null && number == null) {
+            throw new CommandLine.ParameterException(commandLine,
+                    "Please provide a spelled number or a file with -f, --file");
+        }
+
+        SpellingParser.Result result;
+        try (Reader reader = filePath == null ? new StringReader(number) : new BufferedReader(new FileReader(filePath), OUTPUT_BUFFER_SIZE)) {
+            result = SpellingParser.parse(reader);
+        } catch (IOException e) {
+            System.err.println("Error reading the file: " + e.getMessage());
+            return 1;
+        } catch (NumberFormatException | ArithmeticException e) {
+            System.err.println("This is not a spelled number: " + e.getMessage());
+            return 1;
+        }
+
+        System.out.println(result.exponent().abs().compareTo(BigInteger.valueOf(MAX_PLAIN_EXPONENT)) <= 0 ? result.toPlainString() : result.toString());
+        return 0;
+    }
+
+    // Converts every line of the file, or of the standard input if there's no file, and writes them in the same order
+    private int callBatch() {
+        if (number != null) {
+            throw new CommandLine.ParameterException(commandLine,
+                    "-b, --batch reads the numbers from a file with -f, --file or from the standard input, not from the command line");
+        }
+        validateOptions();
+        BigInteger batchExponent = parseExponent();
+
+        if (filePath != null && (FileBatchConverter.isPattern(filePath) || Files.isDirectory(Path.of(filePath)))) {
+            return callFileBatch(batchExponent);
+        }
+
+        if (outputPath != null && new File(outputPath).exists() && !force) {
+            if (filePath == null) { // The answer would be read from the numbers
+                System.err.println("The output file already exists. It can't be overwritten while reading the numbers from the standard input.");
+                return 1;
+            }
+            if (!confirmOverwrite()) return 0;
+        }
+
+        BatchConverter converter = new BatchConverter(createSpeller(), batchExponent, showNumber, eNotation, createFormatSymbols());
+        BatchConverter.Summary summary;
+        ForkJoinPool pool = createPool();
+
+        try (BufferedReader fileReader = filePath == null ? null : new BufferedReader(new FileReader(filePath), OUTPUT_BUFFER_SIZE);
+             Writer fileWriter = outputPath == null ? null : new BufferedWriter(new FileWriter(outputPath), OUTPUT_BUFFER_SIZE)) {
+            // System.in and System.out are not closed
+            BufferedReader reader = fileReader != null ? fileReader : new BufferedReader(new InputStreamReader(System.in), OUTPUT_BUFFER_SIZE);
+            Writer writer = fileWriter != null ? fileWriter : new BufferedWriter(new OutputStreamWriter(System.out), OUTPUT_BUFFER_SIZE);
+
+            summary = converter.convertAll(reader, writer, pool);
+        } catch (IOException e) {
+            System.err.println("Error in batch conversion: " + e.getMessage());
+            return 1;
+        } finally {
+            if (pool != null) pool.shutdown();
+        }
+
+        System.err.printf("%nConverted %,d numbers (%,d invalid) in %.3fms (%,.0f numbers/s)%n", summary.count(), summary.errors(),
+                summary.totalNanos() / 1_000_000.0, summary.count() / (summary.totalNanos() / 1_000_000_000.0));
+        System.err.printf("Latency per number: p50 %.3fus, p99 %.3fus%n", summary.p50Nanos() / 1_000.0, summary.p99Nanos() / 1_000.0);
+
+        return summary.errors() == 0 ? 0 : 1;
+    }
+
+    // Converts every file in the directory given with -f, or every file matching the pattern, into the directory given with -o
+    private int callFileBatch(BigInteger batchExponent) {
+        if (outputPath == null || new File(outputPath).isFile()) {
+            throw new CommandLine.ParameterException(commandLine,
+                    "-b, --batch with a directory or a pattern needs -o, --output <directory> for the converted files");
+        }
+
+        BatchConverter converter = new BatchConverter(createSpeller(), batchExponent, showNumber, eNotation, createFormatSymbols());
+        int workers = threads == null || threads == 0 ? Runtime.getRuntime().availableProcessors() : threads;
+        FileBatchConverter.Summary summary;
+
+        try {
+            summary = new FileBatchConverter(converter, workers, force).convertAll(filePath, Path.of(outputPath));
+        } catch (NoSuchFileException e) {
+            System.err.println("Error in batch conversion: " + e.getMessage() + " doesn't exist");
+            return 1;
+        } catch (IOException | InvalidPathException e) {
+            System.err.println("Error in batch conversion: " + e.getMessage());
+            return 1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 1;
+        }
+
+        System.err.printf("%nConverted %,d files (%,d failed) with %,d numbers (%,d invalid) in %.3fms%n", summary.files(), summary.failedFiles(),
+                summary.lines(), summary.invalidLines(), summary.totalNanos() / 1_000_000.0);
+        System.err.printf("%,.1f files/s, %,.2f MB/s read, %,.2f MB/s written%n", summary.getFilesPerSecond(),
+                summary.getMegabytesReadPerSecond(), summary.getMegabytesWrittenPerSecond());
+
+        return summary.failedFiles() == 0 && summary.invalidLines() == 0 ? 0 : 1;
+    }
+
+    // Runs the HTTP server until the program is stopped. -p sets how many numbers can be converted at the same time.
+    private int callServe() {
+        if (number != null || filePath != null) {
+            throw new CommandLine.ParameterException(commandLine,
+                    "--serve gets the numbers from HTTP requests, not from the command line or a file");
+        }
+        validateOptions();
+
+        NumberServer server;
+        try {
+            server = new NumberServer(createSpeller(), servePort, threads == null || threads == 0 ? Runtime.getRuntime().availableProcessors() : threads);
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Error starting the server: " + e.getMessage());
+            return 1;
+        }
+
+        server.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(server::stop));
+        System.out.println("Listening on http://localhost:" + server.getPort() + "/ (press Ctrl+C to stop)");
+
+        try {
+            Thread.currentThread().join(); // The server runs on its own threads, this waits until the program is stopped
+        } catch (InterruptedException e) {
+            server.stop();
+        }
+
+        return 0;
+    }
+
+    private void validateOptions() {
+        if (eNotation && (exponent == null || !showNumber)) {
+            throw new CommandLine.ParameterException(commandLine,
+                    "-E, --show-e-notation requires both --show-number and -e <exponent> options to be used.");
+        }
+        if (threads != null && threads < 0) {
+            throw new CommandLine.ParameterException(commandLine,
+                    "-p, --parallel requires a thread count of 0 or more");
+        }
+        if (cacheMegabytes < 0) {
+            throw new CommandLine.ParameterException(commandLine,
+                    "--cache-size can't be negative");
+        }
+        if (profileFormat != null && !profileFormat.equals("text") && !profileFormat.equals("json")) {
+            throw new CommandLine.ParameterException(commandLine,
+                    "--profile can only be text or json");
+        }
+        if (locale != null && Locale.forLanguageTag(locale).getLanguage().isEmpty()) {
+            throw new CommandLine.ParameterException(commandLine,
+                    "--locale must be a language tag, like en-US or de-DE");
+        }
+        if (range != null && !range.matches("\\d*:\\d*")) {
+            throw new CommandLine.ParameterException(commandLine,
+                    "--range must be like start:end, for example 1000:2000");
+        }
+        if (profileFormat != null && threads != null) {
+            System.err.println("Warning: -p, --parallel is not used with --profile, since only one thread can be measured.\n");
+        }
+    }
+
+    private boolean confirmOverwrite() {
+        System.out.println("The file already exists and will be overwritten, do you want to continue? (y/n)");
+
+        while (true) {
+            String input = new Scanner(System.in).nextLine();
+            if (input.equalsIgnoreCase("y") || input.equalsIgnoreCase("yes")) {
+                return true;
+            } else if (input.equalsIgnoreCase("n") || input.equalsIgnoreCase("no")) {
+                return false;
+            } else {
+                System.out.println("Please enter \"y\" or \"n\"");
+            }
+        }
+    }
+
+    // Everything is spelled through this, so Main only passes the options on. The builder checks them, and sets the
+    // spill threshold back to the default without --spill, for the next command in the REPL.
+    private NumberSpeller createSpeller() {
+        NumberSpeller.Builder builder = NumberSpeller.builder()
+                .hyphens(!noHyphens)
+                .groupRepeatedDigits(groupRepeated);
+
+        try {
+            if (spillMegabytes != null) builder.spillThreshold(spillMegabytes * 1_000_000);
+        } catch (IllegalArgumentException e) {
+            throw new CommandLine.ParameterException(commandLine, "--spill: " + e.getMessage());
+        }
+
+        return builder.build();
+    }
+
+    private BigInteger parseExponent() { // null without -e
+        try {
+            return exponent == null ? null : NumberSpeller.parseExponent(exponent);
+        } catch (NumberFormatException e) {
+            throw new CommandLine.ParameterException(commandLine, e.getMessage());
+        }
+    }
+
+    private FormatSymbols createFormatSymbols() { // For -s
+        FormatSymbols symbols = locale == null ? FormatSymbols.DEFAULT : FormatSymbols.forLocale(Locale.forLanguageTag(locale));
+        return groupSeparator == null ? symbols : symbols.withGroupSeparator(groupSeparator);
+    }
+
+    private ForkJoinPool createPool() { // null if -p isn't used
+        return threads == null ? null : new ForkJoinPool(threads == 0 ? Runtime.getRuntime().availableProcessors() : threads);
+    }
+
+    private ResultCache openCache() { // null if --cache isn't used, or if the directory can't be used
+        if (cacheDirectory == null) return null;
+
+        try {
+            return new ResultCache(cacheDirectory.isEmpty() ? DEFAULT_CACHE_DIRECTORY : Path.of(cacheDirectory), cacheMegabytes * 1_000_000);
+        } catch (IOException | InvalidPathException e) {
+            System.err.println("Warning: The cache can't be used, so the number will be converted without it: " + e.getMessage());
+            return null;
+        }
+    }
+
+    // Streams the converted number to the channel group by group, so the whole text is never in memory. If the number
+    // is in the cache, it's copied from there instead, and if not, it's also saved there. Returns the time it took.
+    private long writeConverted(NumberSpeller speller, Number numberObject, WritableByteChannel channel, ResultCache cache, String cacheKey) throws IOException {
+        long startTime = System.nanoTime();
+        Profiler.Stage previous = Profiler.enter(Profiler.Stage.OUTPUT_WRITE);
+        boolean cached = cache != null && cache.transferTo(cacheKey, channel);
+        Profiler.enter(previous);
+        if (cached) return System.nanoTime() - startTime;
+
+        Writer channelWriter = Channels.newWriter(channel, StandardCharsets.UTF_8);
+        if (Profiler.enabled) channelWriter = new ProfiledWriter(channelWriter);
+        Writer writer = new BufferedWriter(channelWriter, OUTPUT_BUFFER_SIZE); // Not closed, the channel is closed by the caller
+        ForkJoinPool pool = Profiler.enabled ? null : createPool();
+
+        try {
+            if (range != null) writeRange(numberObject.getSpelledText(speller.isCapitalize()), writer);
+            else if (cache == null) speller.write(numberObject, writer, pool);
+            else cache.store(cacheKey, writer, tee -> speller.write(numberObject, tee, pool));
+            writer.flush();
+        } finally {
+            if (pool != null) pool.shutdown();
+        }
+
+        return System.nanoTime() - startTime;
+    }
+
+    // Writes the part of the text in --range. Only the blocks of groups or digits in it are spelled.
+    private void writeRange(SpelledText text, Writer writer) throws IOException {
+        int colon = range.indexOf(':');
+        long length = text.getLength();
+
+        long start = colon == 0 ? 0 : parsePosition(range.substring(0, colon), length);
+        long end = colon == range.length() - 1 ? length : parsePosition(range.substring(colon + 1), length);
+        text.write(start, Math.max(start, end), writer);
+    }
+
+    private static long parsePosition(String position, long length) { // Positions after the end of the text are moved to the end
+        try {
+            return Math.min(Long.parseLong(position), length);
+        } catch (NumberFormatException e) { // Too large for a long
+            return length;
+        }
+    }
+
+    // Counts the time and bytes of writing the output as the output write stage. It goes under the BufferedWriter, so it
+    // only sees the big chunks, and the conversion code doesn't need to know which of its appends actually write.
+    private static class ProfiledWriter extends FilterWriter {
+        private ProfiledWriter(Writer out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int c) throws IOException {
+            write(new char[] {(char) c}, 0, 1);
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) throws IOException {
+            Profiler.Stage previous = Profiler.enter(Profiler.Stage.OUTPUT_WRITE);
+            out.write(cbuf, off, len);
+            Profiler.count(Profiler.Stage.OUTPUT_WRITE, len);
+            Profiler.enter(previous);
+        }
+
+        @Override
+        public void write(String str, int off, int len) throws IOException {
+            Profiler.Stage previous = Profiler.enter(Profiler.Stage.OUTPUT_WRITE);
+            out.write(str, off, len);
+            Profiler.count(Profiler.Stage.OUTPUT_WRITE, len);
+            Profiler.enter(previous);
+        }
+
+        @Override
+        public void flush() throws IOException { // The encoder keeps some bytes until it's flushed
+            Profiler.Stage previous = Profiler.enter(Profiler.Stage.OUTPUT_WRITE);
+            out.flush();
+            Profiler.enter(previous);
+        }
+    }
+
+    private static boolean hasENotation(CharSequence number) {
+        for (int i = 0; i < number.length(); i++) {
+            char c = number.charAt(i);
+            if (c == 'e' || c == 'E') return true;
+        }
+
+        return false;
+    }
+
     private static int repl() {
         Scanner scanner = new Scanner(System.in);
 
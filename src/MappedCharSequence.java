@@ -0,0 +1,79 @@
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+// The first line of a file as a CharSequence, read through memory-mapped windows instead of being copied into a String.
+// Only meant for numbers, so each byte is one (ASCII) character.
+public class MappedCharSequence implements CharSequence {
+    private static final int WINDOW_BITS = 30; // 1 GiB per mapped window
+    private static final int WINDOW_SIZE = 1 << WINDOW_BITS;
+    private static final int WINDOW_MASK = WINDOW_SIZE - 1;
+
+    private final MappedByteBuffer[] windows;
+    private final long offset;
+    private final int length;
+
+    private MappedCharSequence(MappedByteBuffer[] windows, long offset, int length) {
+        this.windows = windows;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    // Maps the file and scans it until the end of the first line. The mappings stay valid after the file is closed.
+    public static MappedCharSequence readFirstLine(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            List<MappedByteBuffer> windows = new ArrayList<>();
+            long lineLength = 0;
+
+            scan:
+            for (long position = 0; position < size; position += WINDOW_SIZE) {
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(WINDOW_SIZE, size - position));
+                windows.add(window);
+
+                for (int i = 0; i < window.limit(); i++) {
+                    byte b = window.get(i);
+                    if (b == '\n' || b == '\r') break scan;
+                    lineLength++;
+                }
+            }
+
+            if (lineLength > Integer.MAX_VALUE) {
+                throw new IOException("The number is too long, it can have at most " + Integer.MAX_VALUE + " characters");
+            }
+
+            return new MappedCharSequence(windows.toArray(new MappedByteBuffer[0]), 0, (int) lineLength);
+        }
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length) throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + length);
+
+        long position = offset + index;
+        return (char) (windows[(int) (position >>> WINDOW_BITS)].get((int) (position & WINDOW_MASK)) & 0xFF);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        if (start < 0 || end > length || start > end) throw new IndexOutOfBoundsException("Range [" + start + ", " + end + ") out of bounds for length " + length);
+
+        return new MappedCharSequence(windows, offset + start, end - start);
+    }
+
+    @Override
+    public String toString() { // Copies the whole line, so avoid it for huge numbers
+        StringBuilder string = new StringBuilder(length);
+        for (int i = 0; i < length; i++) string.append(charAt(i));
+        return string.toString();
+    }
+}
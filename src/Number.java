@@ -1,5 +1,26 @@
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ForkJoinPool;
+
 public interface Number {
     StringBuilder getConverted();
     String getConvertedString();
     String[] getFormatted();
+    void writeFormatted(Appendable out, FormatSymbols symbols, boolean eNotation) throws IOException; // The number in digits, like 1,234.5 (eNotation is only used by scientific numbers)
+    SpelledText getSpelledText(boolean capitalize); // The converted text, only spelled where it's read
+
+    void writeTo(Appendable out, ForkJoinPool pool) throws IOException; // Writes the converted text to out piece by piece, without building all of it in memory. If pool is not null, the groups are converted in parallel on it
+
+    default void writeTo(Appendable out) throws IOException {
+        writeTo(out, null);
+    }
+
+    default void writeTo(WritableByteChannel channel) throws IOException {
+        Writer writer = Channels.newWriter(channel, StandardCharsets.UTF_8);
+        writeTo(writer);
+        writer.flush();
+    }
 }
@@ -0,0 +1,280 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.BufferedWriter;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Spells numbers over HTTP, so other programs don't need to start a JVM for every number. It only listens on the
+// loopback address.
+//   GET  /?number=123&exponent=5&hyphens=false
+//   POST /?exponent=5 with the number as the body (for numbers too long for a URL)
+//   GET  /metrics for the request count, latency histogram and bytes written
+// The converted number is sent in chunks as it's spelled, so huge numbers are never fully in memory.
+public class NumberServer {
+    private static final int MAX_REQUEST_BYTES = 16 << 20; // Longer numbers (in the body or the URL) get 413
+    private static final int MAX_SCIENTIFIC_DIGITS = 10_000; // BigDecimal and BigInteger parse in quadratic time, so numbers with an exponent are kept short
+    private static final int QUEUE_TIMEOUT_SECONDS = 30; // How long a request waits for a free conversion before it gets 503
+    private static final int RESPONSE_BUFFER_SIZE = 1 << 16;
+    private static final long[] LATENCY_BUCKETS = {1_000_000L, 10_000_000L, 100_000_000L, 1_000_000_000L, 10_000_000_000L}; // Upper bounds in ns
+
+    private final NumberSpeller speller, spellerWithoutHyphens;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final int maxConversions;
+    private final Semaphore conversions; // Limits how many numbers are converted at the same time
+
+    private final LongAdder requests = new LongAdder(), errors = new LongAdder(), rejected = new LongAdder();
+    private final LongAdder bytesWritten = new LongAdder(), latencySum = new LongAdder();
+    private final AtomicLongArray latencyBuckets = new AtomicLongArray(LATENCY_BUCKETS.length + 1); // The last one is +Inf
+
+    // Virtual threads are not in Java 17, so requests run on a fixed pool. It has more threads than there are
+    // conversions allowed, so /metrics and requests that are waiting or sending errors don't block the conversions.
+    public NumberServer(NumberSpeller speller, int port, int maxConversions) throws IOException {
+        this.speller = speller;
+        this.spellerWithoutHyphens = NumberSpeller.builder()
+                .hyphens(false)
+                .capitalize(speller.isCapitalize())
+                .groupRepeatedDigits(speller.isGroupRepeatedDigits())
+                .illionOffset(speller.getIllionOffset())
+                .spillThreshold(speller.getSpillThreshold())
+                .build();
+
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        executor = Executors.newFixedThreadPool(maxConversions * 2);
+        this.maxConversions = maxConversions;
+        conversions = new Semaphore(maxConversions);
+
+        server.setExecutor(executor);
+        server.createContext("/", this::handleConvert);
+        server.createContext("/metrics", this::handleMetrics);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public void stop() {
+        server.stop(1);
+        executor.shutdown();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    private void handleConvert(HttpExchange exchange) throws IOException {
+        long startTime = System.nanoTime();
+        requests.increment();
+
+        try (exchange) {
+            try {
+                convert(exchange);
+            } catch (RuntimeException e) { // Like a badly encoded query, or a temporary file for the groups that couldn't be written
+                sendFailure(exchange, e);
+            }
+        } catch (IOException e) { // Most likely the client disconnected
+            errors.increment();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            recordLatency(System.nanoTime() - startTime);
+        }
+    }
+
+    // Checks the request, then spells the number into the response
+    private void convert(HttpExchange exchange) throws IOException, InterruptedException {
+        if (!exchange.getRequestURI().getPath().equals("/")) {
+            sendError(exchange, 404, "Not found");
+            return;
+        }
+
+        String method = exchange.getRequestMethod();
+        if (!method.equals("GET") && !method.equals("POST")) {
+            exchange.getResponseHeaders().set("Allow", "GET, POST");
+            sendError(exchange, 405, "Only GET and POST are supported");
+            return;
+        }
+
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query != null && query.length() > MAX_REQUEST_BYTES) {
+            sendError(exchange, 413, "The request is too large");
+            return;
+        }
+
+        Map<String, String> parameters = parseQuery(query);
+        String number = parameters.get("number");
+        String exponent = parameters.get("exponent");
+        if (method.equals("GET") && !isValidRequest(exchange, number, exponent)) return;
+
+        // Taken before reading the body, so only maxConversions bodies are in memory at a time, and before parsing,
+        // since parsing a huge number is a lot of the work
+        if (!conversions.tryAcquire(QUEUE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            rejected.increment();
+            sendError(exchange, 503, "Too many requests, try again later");
+            return;
+        }
+
+        try {
+            if (method.equals("POST")) {
+                byte[] body = readBody(exchange.getRequestBody());
+                if (body == null) {
+                    sendError(exchange, 413, "The request is too large");
+                    return;
+                }
+                number = new String(body, StandardCharsets.US_ASCII).strip();
+                if (!isValidRequest(exchange, number, exponent)) return;
+            }
+
+            NumberSpeller requestSpeller = "false".equalsIgnoreCase(parameters.get("hyphens")) ? spellerWithoutHyphens : speller;
+            Number numberObject;
+            try {
+                numberObject = requestSpeller.parse(number, exponent == null ? null : NumberSpeller.parseExponent(exponent));
+            } catch (NumberFormatException | ArithmeticException e) {
+                sendError(exchange, 400, "Please enter a valid number");
+                return;
+            }
+
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+            exchange.sendResponseHeaders(200, 0); // 0 means the length is unknown, so the response is chunked
+
+            CountingOutputStream body = new CountingOutputStream(exchange.getResponseBody());
+            Writer writer = new BufferedWriter(new OutputStreamWriter(body, StandardCharsets.UTF_8), RESPONSE_BUFFER_SIZE);
+
+            requestSpeller.write(numberObject, writer, null);
+            writer.write('\n');
+            writer.flush();
+            bytesWritten.add(body.count);
+        } finally {
+            conversions.release();
+        }
+    }
+
+    // Sends an error and returns false if the number is missing or too long to parse with an exponent
+    private boolean isValidRequest(HttpExchange exchange, String number, String exponent) throws IOException {
+        if (number == null || number.isEmpty()) {
+            sendError(exchange, 400, "Please provide a number");
+            return false;
+        }
+
+        if (exponent != null && (number.length() > MAX_SCIENTIFIC_DIGITS || exponent.length() > MAX_SCIENTIFIC_DIGITS)) {
+            sendError(exchange, 413, "Numbers with an exponent can have at most " + MAX_SCIENTIFIC_DIGITS + " characters, and so can the exponent");
+            return false;
+        }
+
+        return true;
+    }
+
+    // For an exception that nothing else caught. Once the 200 has been sent the status can't change, so it's only counted.
+    private void sendFailure(HttpExchange exchange, RuntimeException e) {
+        if (exchange.getResponseCode() != -1) {
+            errors.increment();
+            return;
+        }
+
+        try {
+            if (e instanceof IllegalArgumentException) sendError(exchange, 400, "The request is not valid: " + e.getMessage());
+            else sendError(exchange, 500, "The number couldn't be converted: " + e.getMessage());
+        } catch (IOException sendException) { // The client disconnected, the error was counted by sendError
+        }
+    }
+
+    private void handleMetrics(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            StringBuilder metrics = new StringBuilder();
+
+            metrics.append("numsay_requests_total ").append(requests.sum()).append('\n');
+            metrics.append("numsay_request_errors_total ").append(errors.sum()).append('\n');
+            metrics.append("numsay_requests_rejected_total ").append(rejected.sum()).append('\n');
+            metrics.append("numsay_response_bytes_total ").append(bytesWritten.sum()).append('\n');
+            metrics.append("numsay_conversions_in_progress ").append(maxConversions - conversions.availablePermits()).append('\n');
+
+            long cumulative = 0;
+            for (int i = 0; i < latencyBuckets.length(); i++) {
+                cumulative += latencyBuckets.get(i);
+                String bound = i < LATENCY_BUCKETS.length ? String.valueOf(LATENCY_BUCKETS[i] / 1_000_000_000.0) : "+Inf";
+                metrics.append("numsay_request_duration_seconds_bucket{le=\"").append(bound).append("\"} ").append(cumulative).append('\n');
+            }
+            metrics.append("numsay_request_duration_seconds_sum ").append(latencySum.sum() / 1_000_000_000.0).append('\n');
+            metrics.append("numsay_request_duration_seconds_count ").append(cumulative).append('\n');
+
+            byte[] response = metrics.toString().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            exchange.sendResponseHeaders(200, response.length);
+            exchange.getResponseBody().write(response);
+        }
+    }
+
+    private void recordLatency(long nanos) {
+        int bucket = 0;
+        while (bucket < LATENCY_BUCKETS.length && nanos > LATENCY_BUCKETS[bucket]) bucket++;
+
+        latencyBuckets.incrementAndGet(bucket);
+        latencySum.add(nanos);
+    }
+
+    private void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        if (status != 503) errors.increment();
+
+        byte[] response = (message + "\n").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, response.length);
+        exchange.getResponseBody().write(response);
+    }
+
+    private static Map<String, String> parseQuery(String query) {
+        Map<String, String> parameters = new HashMap<>();
+        if (query == null || query.isEmpty()) return parameters;
+
+        for (String parameter : query.split("&")) {
+            int equals = parameter.indexOf('=');
+            String name = equals == -1 ? parameter : parameter.substring(0, equals);
+            String value = equals == -1 ? "" : parameter.substring(equals + 1);
+
+            parameters.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+
+        return parameters;
+    }
+
+    private static byte[] readBody(InputStream body) throws IOException { // null if it's larger than MAX_REQUEST_BYTES
+        byte[] bytes = body.readNBytes(MAX_REQUEST_BYTES + 1);
+        return bytes.length > MAX_REQUEST_BYTES ? null : bytes;
+    }
+
+    private static class CountingOutputStream extends FilterOutputStream { // Counts the bytes written, for the metrics
+        private long count;
+
+        private CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
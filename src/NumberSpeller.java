@@ -0,0 +1,177 @@
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+// The way to use Numsay from other code. A NumberSpeller is immutable and can be shared by any number of threads,
+// so a program only needs to make one for each set of options:
+//   NumberSpeller speller = NumberSpeller.builder().hyphens(false).build();
+//   speller.spell("1234.5")                             -> "One thousand two hundred thirty four point five"
+//   speller.spell(new BigDecimal("1.5"), BigInteger.TEN) -> "Fifteen billion"
+public final class NumberSpeller {
+    private final boolean hyphens;
+    private final boolean capitalize;
+    private final boolean groupRepeatedDigits;
+    private final BigInteger illionOffset; // Every number is multiplied by 1000^illionOffset
+    private final long spillThreshold; // In bytes, see Builder.spillThreshold
+
+    private NumberSpeller(Builder builder) {
+        this.hyphens = builder.hyphens;
+        this.capitalize = builder.capitalize;
+        this.groupRepeatedDigits = builder.groupRepeatedDigits;
+        this.illionOffset = builder.illionOffset;
+        this.spillThreshold = builder.spillThreshold;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    // Reads a number like "-1234.5". Throws NumberFormatException if it's not a valid number.
+    public Number parse(CharSequence number) {
+        if (illionOffset.signum() == 0) return new DecimalNumber(number, hyphens, groupRepeatedDigits);
+
+        DecimalNumber.validate(number); // BigDecimal would also take "1e5" and digits from other scripts
+        return parse(new BigDecimal(number.toString()), BigInteger.ZERO);
+    }
+
+    // number * 10^exponent, where number is like "-1234.5" too (not "1.5e3"). A null exponent is the same as parse(number).
+    public Number parse(CharSequence number, BigInteger exponent) {
+        if (exponent == null) return parse(number);
+
+        DecimalNumber.validate(number);
+        return parse(new BigDecimal(number.toString()), exponent);
+    }
+
+    // coefficient * 10^exponent
+    public Number parse(BigDecimal coefficient, BigInteger exponent) {
+        return new ScientificNumber(coefficient, exponent.add(illionOffset.multiply(BigInteger.valueOf(3))), hyphens, groupRepeatedDigits);
+    }
+
+    // Reads an exponent like "-150". Throws NumberFormatException if it's not an integer.
+    public static BigInteger parseExponent(String exponent) {
+        try {
+            return new BigInteger(exponent);
+        } catch (NumberFormatException e) {
+            throw new NumberFormatException("Scientific notation exponents can only be integers");
+        }
+    }
+
+    public CharSequence spell(CharSequence number) {
+        return spell(parse(number));
+    }
+
+    public CharSequence spell(BigDecimal coefficient, BigInteger exponent) {
+        return spell(parse(coefficient, exponent));
+    }
+
+    public void spell(CharSequence number, Appendable out) throws IOException {
+        write(parse(number), out, null);
+    }
+
+    public void spell(BigDecimal coefficient, BigInteger exponent, Appendable out) throws IOException {
+        write(parse(coefficient, exponent), out, null);
+    }
+
+    // The spelled text of the number, only spelled for the parts that are read, see SpelledText
+    public SpelledText view(CharSequence number) {
+        return parse(number).getSpelledText(capitalize);
+    }
+
+    public SpelledText view(BigDecimal coefficient, BigInteger exponent) {
+        return parse(coefficient, exponent).getSpelledText(capitalize);
+    }
+
+    // Spells every number, on the pool if it's not null. Throws NumberFormatException for the first invalid number.
+    public List<String> spellAll(List<? extends CharSequence> numbers, ForkJoinPool pool) {
+        List<String> spelled = new ArrayList<>(numbers.size());
+
+        if (pool == null) {
+            for (CharSequence number : numbers) spelled.add(spell(number).toString());
+            return spelled;
+        }
+
+        List<ForkJoinTask<String>> tasks = new ArrayList<>(numbers.size());
+        for (CharSequence number : numbers) tasks.add(pool.submit(() -> spell(number).toString()));
+        for (ForkJoinTask<String> task : tasks) spelled.add(task.join());
+
+        return spelled;
+    }
+
+    // Writes the number spelled with these options (and capitalized if set) to out. If pool is not null, huge numbers
+    // are converted in parallel on it.
+    public void write(Number number, Appendable out, ForkJoinPool pool) throws IOException {
+        number.writeTo(capitalize ? Converter.capitalize(out) : out, pool);
+    }
+
+    private CharSequence spell(Number number) {
+        return Converter.appendTo(new StringBuilder(), out -> write(number, out, null));
+    }
+
+    public boolean isHyphens() {
+        return hyphens;
+    }
+
+    public boolean isCapitalize() {
+        return capitalize;
+    }
+
+    public boolean isGroupRepeatedDigits() {
+        return groupRepeatedDigits;
+    }
+
+    public BigInteger getIllionOffset() {
+        return illionOffset;
+    }
+
+    public long getSpillThreshold() {
+        return spillThreshold;
+    }
+
+    public static final class Builder {
+        private boolean hyphens = true;
+        private boolean capitalize = true;
+        private boolean groupRepeatedDigits;
+        private BigInteger illionOffset = BigInteger.ZERO;
+        private long spillThreshold = PackedGroups.DEFAULT_SPILL_THRESHOLD;
+
+        private Builder() {}
+
+        public Builder hyphens(boolean hyphens) { // "ninety-nine" or "ninety nine"
+            this.hyphens = hyphens;
+            return this;
+        }
+
+        public Builder capitalize(boolean capitalize) { // Capitalize the first letter
+            this.capitalize = capitalize;
+            return this;
+        }
+
+        public Builder groupRepeatedDigits(boolean groupRepeatedDigits) { // "zero repeated five times" after the decimal point
+            this.groupRepeatedDigits = groupRepeatedDigits;
+            return this;
+        }
+
+        public Builder illionOffset(BigInteger illionOffset) { // 1 spells 5 as "five thousand", 2 as "five million" and so on
+            if (illionOffset == null) throw new NullPointerException("illionOffset");
+            this.illionOffset = illionOffset;
+            return this;
+        }
+
+        // Numbers whose digit groups take more bytes than this are kept in a temporary file. The groups are kept by
+        // PackedGroups for the whole program, so the last speller built sets it for every speller.
+        public Builder spillThreshold(long bytes) {
+            if (bytes < 0) throw new IllegalArgumentException("The spill threshold can't be negative");
+            this.spillThreshold = bytes;
+            return this;
+        }
+
+        public NumberSpeller build() {
+            PackedGroups.setSpillThreshold(spillThreshold);
+            return new NumberSpeller(this);
+        }
+    }
+}
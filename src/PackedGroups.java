@@ -0,0 +1,184 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// The three digit groups of a number (0 to 999), packed into 10 bits each instead of the 16 of a short[]. If the groups
+// take more than the spill threshold, they're kept in a memory-mapped temporary file instead of the heap, so (with the
+// number read from a mapped file too) numbers larger than the heap can be spelled.
+// MemorySegment would fit this, but it's still a preview in Java 17, so the file is mapped with MappedByteBuffers.
+public final class PackedGroups {
+    private static final int BITS = 10;
+    private static final int MASK = (1 << BITS) - 1;
+    private static final int WINDOW_BITS = 27; // 2^27 longs (1 GiB) per mapped window
+    private static final int WINDOW_SIZE = 1 << WINDOW_BITS;
+    private static final int WINDOW_MASK = WINDOW_SIZE - 1;
+
+    public static final long DEFAULT_SPILL_THRESHOLD = Runtime.getRuntime().maxMemory() / 4; // In bytes
+    static final long MIN_SPILL_BYTES = 1 << 20; // Smaller groups always stay on the heap, a file for each would cost more than it saves
+
+    private static volatile long spillThreshold = DEFAULT_SPILL_THRESHOLD;
+
+    private final int length;
+    private final long[] words; // null if the groups are in a file
+    private final LongBuffer[] windows; // The words in the file, null if they're on the heap
+
+    private PackedGroups(int length) {
+        this.length = length;
+        long wordCount = ((long) length * BITS + 63) >>> 6;
+
+        if (wordCount * Long.BYTES <= Math.max(spillThreshold, MIN_SPILL_BYTES)) {
+            words = new long[(int) wordCount];
+            windows = null;
+        } else {
+            words = null;
+            windows = mapTemporaryFile(wordCount);
+        }
+    }
+
+    public static PackedGroups of(short... groups) {
+        PackedGroups packed = new PackedGroups(groups.length);
+        for (int i = 0; i < groups.length; i++) packed.set(i, groups[i]);
+        return packed;
+    }
+
+    // A number that is all zeros, with length groups. Filled with set().
+    static PackedGroups allocate(int length) {
+        return new PackedGroups(length);
+    }
+
+    // Groups that take more than this many bytes (and at least MIN_SPILL_BYTES) go to a temporary file. A quarter of the heap by default.
+    public static void setSpillThreshold(long bytes) {
+        if (bytes < 0) throw new IllegalArgumentException("The spill threshold can't be negative");
+        spillThreshold = bytes;
+    }
+
+    public static long getSpillThreshold() {
+        return spillThreshold;
+    }
+
+    public int length() {
+        return length;
+    }
+
+    public boolean isZero() {
+        return length == 1 && get(0) == 0;
+    }
+
+    public boolean isMapped() { // True if the groups are in a temporary file
+        return windows != null;
+    }
+
+    public int get(int index) {
+        if (index < 0 || index >= length) throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + length);
+
+        long bit = (long) index * BITS;
+        int word = (int) (bit >>> 6);
+        int offset = (int) (bit & 63);
+
+        long value = getWord(word) >>> offset;
+        if (offset > 64 - BITS) value |= getWord(word + 1) << (64 - offset); // The group goes over two words
+
+        return (int) (value & MASK);
+    }
+
+    void set(int index, int value) {
+        long bit = (long) index * BITS;
+        int word = (int) (bit >>> 6);
+        int offset = (int) (bit & 63);
+
+        setWord(word, getWord(word) & ~((long) MASK << offset) | (long) value << offset);
+        if (offset > 64 - BITS) {
+            int highBits = offset + BITS - 64; // The part that goes into the next word
+            setWord(word + 1, getWord(word + 1) & -(1L << highBits) | value >>> (BITS - highBits));
+        }
+    }
+
+    // Reads the groups in order from index, a word at a time
+    public Cursor cursor(int index) {
+        return new Cursor(index);
+    }
+
+    private long getWord(int index) {
+        return words != null ? words[index] : windows[index >>> WINDOW_BITS].get(index & WINDOW_MASK);
+    }
+
+    private void setWord(int index, long word) {
+        if (words != null) words[index] = word;
+        else windows[index >>> WINDOW_BITS].put(index & WINDOW_MASK, word);
+    }
+
+    // The file is deleted right after it's mapped, the mappings stay until they're garbage collected
+    private static LongBuffer[] mapTemporaryFile(long wordCount) {
+        try {
+            Path file = Files.createTempFile("numsay-groups", ".bin");
+
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                LongBuffer[] windows = new LongBuffer[(int) ((wordCount + WINDOW_SIZE - 1) >>> WINDOW_BITS)];
+
+                for (int i = 0; i < windows.length; i++) {
+                    long position = (long) i << WINDOW_BITS;
+                    long size = Math.min(WINDOW_SIZE, wordCount - position) * Long.BYTES;
+                    MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_WRITE, position * Long.BYTES, size); // Grows the file, with zeros
+
+                    windows[i] = window.order(ByteOrder.nativeOrder()).asLongBuffer();
+                }
+
+                return windows;
+            } finally {
+                try {
+                    Files.delete(file);
+                } catch (IOException e) { // Windows can't delete a mapped file
+                    file.toFile().deleteOnExit();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("The groups of the number can't be saved in a temporary file", e);
+        }
+    }
+
+    public final class Cursor {
+        private int index;
+        private int word;
+        private int offset; // Of the next group in current
+        private long current;
+
+        private Cursor(int index) {
+            long bit = (long) index * BITS;
+
+            this.index = index;
+            this.word = (int) (bit >>> 6);
+            this.offset = (int) (bit & 63);
+            if (index < length) current = getWord(word);
+        }
+
+        public boolean hasNext() {
+            return index < length;
+        }
+
+        public int next() {
+            if (index++ >= length) throw new IndexOutOfBoundsException("No groups after index " + (length - 1));
+
+            if (offset == 64) {
+                current = getWord(++word);
+                offset = 0;
+            }
+
+            long value = current >>> offset;
+            offset += BITS;
+
+            if (offset > 64) { // The group goes over two words
+                current = getWord(++word);
+                offset -= 64;
+                value |= current << (BITS - offset);
+            }
+
+            return (int) (value & MASK);
+        }
+    }
+}
@@ -0,0 +1,235 @@
+import com.sun.management.GarbageCollectionNotificationInfo;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import java.io.PrintStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Splits the time of one conversion into stages for --profile. The code being measured calls enter() whenever it
+// moves to another stage, and the time and allocated bytes since the last call go to the stage it leaves, so stages
+// that take turns for every group (like illion generation and hundreds spelling) are still counted separately.
+// Only one thread is measured (the one that called start()), and when the profiler is off every check is a single
+// read of `enabled`. At the end, every stage is also sent to Java Flight Recorder as a numsay.Stage event.
+public class Profiler {
+    public enum Stage {
+        READ("read"),
+        PARSE("parse"),
+        GROUP_SPLIT("group split"),
+        FORMAT("format"), // -s
+        ILLION_GENERATION("illion generation"),
+        HUNDREDS_SPELLING("hundreds spelling"), // Also the digits after the decimal point
+        OUTPUT_WRITE("output write");
+
+        private final String label;
+
+        Stage(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    private static final Stage[] STAGES = Stage.values();
+    private static final int NO_STAGE = -1;
+
+    static boolean enabled; // Read by the hot loops, only changed by start() and stop()
+
+    private static Thread thread;
+    private static com.sun.management.ThreadMXBean threads;
+    private static Stage current;
+    private static long lastTime, lastAllocated, startTime, endTime;
+    private static final long[] nanos = new long[STAGES.length];
+    private static final long[] allocated = new long[STAGES.length];
+    private static final long[] bytes = new long[STAGES.length];
+
+    // Garbage collections are reported on another thread, so they go to the stage that was running at that moment
+    private static final AtomicInteger gcStage = new AtomicInteger(NO_STAGE);
+    private static final AtomicLongArray garbageCollections = new AtomicLongArray(STAGES.length + 1); // The last one is outside any stage
+    private static final NotificationListener GC_LISTENER = Profiler::handleGarbageCollection;
+
+    private Profiler() {}
+
+    // True if a flight recording that includes numsay.Stage events is running, so production runs recorded with
+    // -XX:StartFlightRecording get the stages without --profile. Checked first, since loading JFR classes takes time.
+    public static boolean isRecording() {
+        return FlightRecorder.isInitialized() && new StageEvent().isEnabled();
+    }
+
+    public static synchronized void start() {
+        threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        for (int i = 0; i < STAGES.length; i++) {
+            nanos[i] = allocated[i] = bytes[i] = 0;
+            garbageCollections.set(i, 0);
+        }
+        garbageCollections.set(STAGES.length, 0);
+
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (collector instanceof NotificationEmitter emitter) emitter.addNotificationListener(GC_LISTENER, null, null);
+        }
+
+        thread = Thread.currentThread();
+        current = null;
+        gcStage.set(NO_STAGE);
+        startTime = lastTime = System.nanoTime();
+        lastAllocated = threads.getCurrentThreadAllocatedBytes();
+        enabled = true;
+    }
+
+    // Ends the current stage. Garbage collections that are reported after this are not counted.
+    public static synchronized void stop() {
+        if (!enabled) return;
+
+        enter(null);
+        endTime = lastTime;
+        enabled = false;
+
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            try {
+                if (collector instanceof NotificationEmitter emitter) emitter.removeNotificationListener(GC_LISTENER);
+            } catch (javax.management.ListenerNotFoundException e) { // Collectors added after start()
+            }
+        }
+    }
+
+    // Moves to stage (null for none) and returns the stage that was running before, so it can be entered again
+    public static Stage enter(Stage stage) {
+        if (!enabled || Thread.currentThread() != thread) return null;
+
+        long time = System.nanoTime();
+        long allocatedBytes = threads.getCurrentThreadAllocatedBytes();
+
+        if (current != null) {
+            nanos[current.ordinal()] += time - lastTime;
+            allocated[current.ordinal()] += allocatedBytes - lastAllocated;
+        }
+
+        Stage previous = current;
+        current = stage;
+        lastTime = time;
+        lastAllocated = allocatedBytes;
+        gcStage.lazySet(stage == null ? NO_STAGE : stage.ordinal()); // The listener doesn't need to see it right away
+
+        return previous;
+    }
+
+    // Adds bytes read or written by the stage (each character of a number or its text is one byte)
+    public static void count(Stage stage, long count) {
+        if (enabled && Thread.currentThread() == thread) bytes[stage.ordinal()] += count;
+    }
+
+    private static void handleGarbageCollection(Notification notification, Object handback) {
+        if (!notification.getType().equals(GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION)) return;
+
+        int stage = gcStage.get();
+        garbageCollections.incrementAndGet(stage == NO_STAGE ? STAGES.length : stage);
+    }
+
+    public static void printText(PrintStream out) {
+        long total = endTime - startTime;
+        long totalAllocated = 0;
+        for (long stageAllocated : allocated) totalAllocated += stageAllocated;
+
+        out.printf("%n%-18s %12s %7s %15s %15s %5s%n", "Stage", "Time (ms)", "Time", "Bytes", "Allocated", "GCs");
+        for (Stage stage : STAGES) {
+            int i = stage.ordinal();
+            out.printf("%-18s %12.3f %6.1f%% %,15d %,15d %5d%n", stage.getLabel(), nanos[i] / 1_000_000.0,
+                    total == 0 ? 0 : 100.0 * nanos[i] / total, bytes[i], allocated[i], garbageCollections.get(i));
+        }
+        out.printf("%-18s %12.3f %6.1f%% %15s %,15d %5d%n", "total", total / 1_000_000.0, 100.0, "", totalAllocated, getTotalGarbageCollections());
+
+        long outside = total;
+        for (long stageNanos : nanos) outside -= stageNanos;
+        out.printf("(%.3fms outside the stages, like creating the output file)%n", outside / 1_000_000.0);
+    }
+
+    public static void printJson(PrintStream out) {
+        StringBuilder json = new StringBuilder("{\"stages\":[");
+
+        for (Stage stage : STAGES) {
+            int i = stage.ordinal();
+            if (i > 0) json.append(',');
+
+            json.append("{\"name\":\"").append(stage.getLabel())
+                    .append("\",\"nanos\":").append(nanos[i])
+                    .append(",\"bytes\":").append(bytes[i])
+                    .append(",\"allocatedBytes\":").append(allocated[i])
+                    .append(",\"garbageCollections\":").append(garbageCollections.get(i))
+                    .append('}');
+        }
+
+        long totalAllocated = 0;
+        for (long stageAllocated : allocated) totalAllocated += stageAllocated;
+
+        json.append("],\"totalNanos\":").append(endTime - startTime)
+                .append(",\"totalAllocatedBytes\":").append(totalAllocated)
+                .append(",\"totalGarbageCollections\":").append(getTotalGarbageCollections())
+                .append('}');
+        out.println(json);
+    }
+
+    // Sends one event for every stage that ran. Does nothing if no recording wants them.
+    public static void commitEvents() {
+        for (Stage stage : STAGES) {
+            int i = stage.ordinal();
+            if (nanos[i] == 0 && bytes[i] == 0) continue;
+
+            StageEvent event = new StageEvent();
+            if (!event.shouldCommit()) return;
+
+            event.stage = stage.getLabel();
+            event.time = nanos[i];
+            event.bytes = bytes[i];
+            event.allocated = allocated[i];
+            event.garbageCollections = garbageCollections.get(i);
+            event.commit();
+        }
+    }
+
+    private static long getTotalGarbageCollections() {
+        long total = 0;
+        for (int i = 0; i < garbageCollections.length(); i++) total += garbageCollections.get(i);
+        return total;
+    }
+
+    @Name("numsay.Stage")
+    @Label("Numsay Stage")
+    @Category("Numsay")
+    @Description("Time, bytes, allocations and garbage collections of one stage of a conversion")
+    @StackTrace(false) // They're all sent from the same place
+    static class StageEvent extends Event {
+        @Label("Stage")
+        String stage;
+
+        @Label("Time")
+        @Timespan(Timespan.NANOSECONDS)
+        long time;
+
+        @Label("Bytes")
+        @DataAmount
+        long bytes;
+
+        @Label("Allocated")
+        @DataAmount
+        long allocated;
+
+        @Label("Garbage Collections")
+        long garbageCollections;
+    }
+}
@@ -0,0 +1,269 @@
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+
+// Keeps converted numbers in a directory so converting the same huge number again is just a file copy.
+// Each entry is a file named after the SHA-256 of the normalized number and the options, with a small header
+// (MAGIC and the length of the text) and then the converted text in UTF-8.
+public class ResultCache {
+    private static final int FORMAT_VERSION = 1; // Part of every key, change it if the spelling changes so old entries are not used
+    private static final long MAGIC = 0x4E554D5341593031L; // "NUMSAY01"
+    private static final int HEADER_SIZE = 16; // MAGIC and the text length
+    private static final String EXTENSION = ".cache";
+
+    private final Path directory;
+    private final long maxBytes; // Least recently used entries are deleted when the directory has more than this
+
+    private int hits, misses;
+
+    private record Entry(Path path, long size, FileTime lastUsed) {}
+
+    // Called with a writer that goes to the output and to the new entry
+    public interface Output {
+        void writeTo(Writer writer) throws IOException;
+    }
+
+    public ResultCache(Path directory, long maxBytes) throws IOException {
+        if (maxBytes < 0) throw new IllegalArgumentException("The cache size can't be negative");
+
+        this.directory = Files.createDirectories(directory);
+        this.maxBytes = maxBytes;
+    }
+
+    // Numbers that are the same but written differently ("+007.50" and "7.5") get the same key
+    public static String key(CharSequence number, boolean hyphens, boolean groupRepeatedDigits) {
+        int length = number.length();
+        int position = 0;
+
+        boolean minus = length > 0 && number.charAt(0) == '-';
+        if (minus || (length > 0 && number.charAt(0) == '+')) position++;
+        while (position < length && number.charAt(position) == '0') position++; // Leading zeros
+
+        int integerStart = position;
+        while (position < length && number.charAt(position) != '.') position++;
+        int integerEnd = position;
+
+        int fractionStart = Math.min(position + 1, length);
+        int fractionEnd = length;
+        while (fractionEnd > fractionStart && number.charAt(fractionEnd - 1) == '0') fractionEnd--; // Trailing zeros
+
+        boolean zero = integerStart == integerEnd && fractionStart == fractionEnd;
+
+        MessageDigest digest = newDigest();
+
+        if (minus && !zero) digest.update((byte) '-');
+        if (integerStart == integerEnd) digest.update((byte) '0');
+        update(digest, number, integerStart, integerEnd);
+
+        if (fractionStart < fractionEnd) {
+            digest.update((byte) '.');
+            update(digest, number, fractionStart, fractionEnd);
+        }
+
+        return finish(digest, "", hyphens, groupRepeatedDigits);
+    }
+
+    // coefficient * 10^exponent, in a form that doesn't depend on where the decimal point was ("1.5 -e 3" and "15 -e 2")
+    public static String key(BigDecimal coefficient, BigInteger exponent, boolean hyphens, boolean groupRepeatedDigits) {
+        BigDecimal stripped = coefficient.stripTrailingZeros();
+        BigInteger scaledExponent = stripped.signum() == 0 ? BigInteger.ZERO : exponent.subtract(BigInteger.valueOf(stripped.scale()));
+
+        MessageDigest digest = newDigest();
+        digest.update(stripped.unscaledValue().toString().getBytes(StandardCharsets.US_ASCII));
+
+        return finish(digest, "e" + scaledExponent, hyphens, groupRepeatedDigits);
+    }
+
+    private static void update(MessageDigest digest, CharSequence digits, int start, int end) { // The digits are ASCII, so each char is one byte
+        byte[] buffer = new byte[Math.min(8192, end - start)];
+
+        for (int i = start; i < end; ) {
+            int length = Math.min(buffer.length, end - i);
+            for (int j = 0; j < length; j++) buffer[j] = (byte) digits.charAt(i++);
+            digest.update(buffer, 0, length);
+        }
+    }
+
+    private static String finish(MessageDigest digest, String exponent, boolean hyphens, boolean groupRepeatedDigits) {
+        String options = exponent + "|v" + FORMAT_VERSION + (hyphens ? "|hyphens" : "") + (groupRepeatedDigits ? "|grouped" : "");
+        digest.update(options.getBytes(StandardCharsets.US_ASCII));
+
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) { // Every Java platform has SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // If there's an entry for key, copies it to out and returns true. The text is copied by the operating system
+    // (FileChannel.transferTo), without going through the JVM, only the header is read through a memory-mapped buffer.
+    public boolean transferTo(String key, WritableByteChannel out) throws IOException {
+        Path path = directory.resolve(key + EXTENSION);
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE) return miss();
+
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            if (header.getLong() != MAGIC || header.getLong() != size - HEADER_SIZE) return miss(); // Not an entry, or a broken one
+
+            for (long position = HEADER_SIZE; position < size; ) {
+                position += channel.transferTo(position, size - position, out);
+            }
+        } catch (NoSuchFileException e) {
+            return miss();
+        }
+
+        Files.setLastModifiedTime(path, FileTime.fromMillis(System.currentTimeMillis())); // For the least recently used eviction
+        hits++;
+        return true;
+    }
+
+    private boolean miss() {
+        misses++;
+        return false;
+    }
+
+    // Gives output a writer that writes to out and to a new entry for key. The entry is only saved if output finishes
+    // without an exception, and problems with the cache (like a full disk) never stop the output. out is flushed, not closed.
+    public void store(String key, Writer out, Output output) throws IOException {
+        Path temporary = Files.createTempFile(directory, key, ".tmp");
+        boolean saved = false;
+
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+            channel.position(HEADER_SIZE);
+            TeeWriter writer = new TeeWriter(out, Channels.newWriter(channel, StandardCharsets.UTF_8), maxBytes);
+
+            output.writeTo(writer);
+            writer.flush();
+
+            if (!writer.failed) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putLong(MAGIC).putLong(channel.size() - HEADER_SIZE).flip();
+                while (header.hasRemaining()) channel.write(header, HEADER_SIZE - header.remaining());
+                saved = true;
+            }
+        } finally {
+            if (saved) {
+                Files.move(temporary, directory.resolve(key + EXTENSION), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                evict();
+            } else {
+                Files.deleteIfExists(temporary);
+            }
+        }
+    }
+
+    // Deletes the least recently used entries until the entries take maxBytes or less
+    private void evict() throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        long total = 0;
+
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + EXTENSION)) {
+            for (Path path : stream) {
+                try {
+                    Entry entry = new Entry(path, Files.size(path), Files.getLastModifiedTime(path));
+                    entries.add(entry);
+                    total += entry.size();
+                } catch (NoSuchFileException e) { // Deleted by another Numsay at the same time
+                }
+            }
+        }
+
+        entries.sort(Comparator.comparing(Entry::lastUsed));
+
+        for (int i = 0; i < entries.size() && total > maxBytes; i++) {
+            Files.deleteIfExists(entries.get(i).path());
+            total -= entries.get(i).size();
+        }
+    }
+
+    public int getHits() {
+        return hits;
+    }
+
+    public int getMisses() {
+        return misses;
+    }
+
+    // Writes to out and to the cache entry. If writing the entry fails, or it gets larger than maxBytes, it stops
+    // writing the entry and only writes to out.
+    private static class TeeWriter extends Writer {
+        private final Writer out, entry;
+        private final long maxChars; // One char is at least one byte, so more chars than maxBytes never fit
+        private long written;
+        private boolean failed;
+
+        private TeeWriter(Writer out, Writer entry, long maxChars) {
+            this.out = out;
+            this.entry = entry;
+            this.maxChars = maxChars;
+        }
+
+        @Override
+        public void write(char[] chars, int offset, int length) throws IOException {
+            out.write(chars, offset, length);
+            if (failed) return;
+
+            written += length;
+            try {
+                if (written > maxChars) failed = true;
+                else entry.write(chars, offset, length);
+            } catch (IOException e) {
+                failed = true;
+            }
+        }
+
+        @Override
+        public void write(String string, int offset, int length) throws IOException {
+            out.write(string, offset, length);
+            if (failed) return;
+
+            written += length;
+            try {
+                if (written > maxChars) failed = true;
+                else entry.write(string, offset, length);
+            } catch (IOException e) {
+                failed = true;
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+
+            try {
+                if (!failed) entry.flush();
+            } catch (IOException e) {
+                failed = true;
+            }
+        }
+
+        @Override
+        public void close() throws IOException { // The entry's channel and out are closed by their owners
+            flush();
+        }
+    }
+}
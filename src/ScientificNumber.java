@@ -1,69 +1,134 @@
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.util.concurrent.ForkJoinPool;
 
+// The number is never expanded: the digits of the coefficient are split into groups and the exponent only decides
+// the illion offset or how many zeros come after the decimal point, so exponents of any size are spelled instantly.
 public class ScientificNumber implements Number {
-    private final StringBuilder converted = new StringBuilder();
+
     private final BigDecimal coefficient;
     private final BigInteger exponent;
+    private final boolean dashes;
+    private final boolean groupRepeatedDigits; // Spell runs of the same digit after the decimal point as a count
+
+    private final PackedGroups integerPartArray;
+    private final BigInteger illionOffset;
+    private final BigInteger leadingZeros; // Zeros right after the decimal point, before fractionDigits
+    private final String fractionDigits; // Without trailing zeros
 
     public ScientificNumber(BigDecimal coefficient, BigInteger exponent, boolean dashes) {
+        this(coefficient, exponent, dashes, false);
+    }
+
+    public ScientificNumber(BigDecimal coefficient, BigInteger exponent, boolean dashes, boolean groupRepeatedDigits) {
         this.coefficient = coefficient;
         this.exponent = exponent;
+        this.dashes = dashes;
+        this.groupRepeatedDigits = groupRepeatedDigits;
+
+        // coefficient * 10^exponent = unscaled * 10^shift
+        BigInteger unscaled = coefficient.unscaledValue().abs();
+        BigInteger shift = exponent.subtract(BigInteger.valueOf(coefficient.scale()));
+
+        if (shift.signum() >= 0 || coefficient.signum() == 0) { // An integer, the exponent becomes the illionOffset
+            if (coefficient.signum() == 0) shift = BigInteger.ZERO;
+
+            int extra = shift.mod(BigInteger.valueOf(3)).intValue(); // The illions go up every three digits, so up to two zeros are added to the digits
+            Profiler.Stage previous = Profiler.enabled ? Profiler.enter(Profiler.Stage.GROUP_SPLIT) : null;
+            integerPartArray = PackedGroups.of(Converter.getGroupsOfThousands(unscaled.multiply(BigInteger.TEN.pow(extra))));
+            if (Profiler.enabled) {
+                Profiler.count(Profiler.Stage.GROUP_SPLIT, integerPartArray.length() * 3L);
+                Profiler.enter(previous);
+            }
+            illionOffset = shift.subtract(BigInteger.valueOf(extra)).divide(BigInteger.valueOf(3));
+            leadingZeros = BigInteger.ZERO;
+            fractionDigits = "";
+
+        } else { // The decimal point is somewhere in the digits or before them
+            String digits = unscaled.toString();
+            BigInteger fractionLength = shift.negate();
+            int integerLength = fractionLength.compareTo(BigInteger.valueOf(digits.length())) < 0 ? digits.length() - fractionLength.intValue() : 0;
+
+            int fractionEnd = digits.length();
+            while (fractionEnd > integerLength && digits.charAt(fractionEnd - 1) == '0') fractionEnd--;
+
+            Profiler.Stage previous = Profiler.enabled ? Profiler.enter(Profiler.Stage.GROUP_SPLIT) : null;
+            integerPartArray = Converter.getGroupsOfThousands(digits, 0, integerLength);
+            if (Profiler.enabled) {
+                Profiler.count(Profiler.Stage.GROUP_SPLIT, integerLength);
+                Profiler.enter(previous);
+            }
+            illionOffset = BigInteger.ZERO;
+            leadingZeros = integerLength == 0 ? fractionLength.subtract(BigInteger.valueOf(digits.length())) : BigInteger.ZERO;
+            fractionDigits = digits.substring(integerLength, fractionEnd);
+        }
 
-        if (coefficient.signum() == -1) converted.append("negative ");
-
-        BigDecimal number = null;
-
-        if (exponent.signum() <= 0) {
-            number = coefficient.movePointLeft(exponent.abs().intValueExact());
-
-        } else if (exponent.intValue() > 0 && exponent.intValueExact() <= coefficient.scale()) {
-            number = coefficient.movePointRight(exponent.intValue());
+    }
 
-        } else { // If exponent is large enough for illionOffset
-            int moveDecimalPointAmount = coefficient.scale();
-            exponent = exponent.subtract(BigInteger.valueOf(moveDecimalPointAmount));
+    @Override
+    public void writeTo(Appendable out, ForkJoinPool pool) throws IOException {
+        if (coefficient.signum() == -1) out.append("negative ");
 
-            int extra = exponent.mod(BigInteger.valueOf(3)).intValue();
-            moveDecimalPointAmount += extra;
-            exponent = exponent.subtract(BigInteger.valueOf(extra));
+        Converter.writeInteger(integerPartArray, dashes, illionOffset, out, pool); // Integer part conversion
 
-            converted.append(Converter.convertInteger(
-                    Converter.getGroupsOfThousands(
-                            coefficient.movePointRight(moveDecimalPointAmount)
-                                    .toBigIntegerExact()
-                    ),
-                    dashes,
-                    exponent.divide(BigInteger.valueOf(3))
-            ));
+        if (!fractionDigits.isEmpty()) { // Decimal part conversion
+            out.append(" point ");
+            writeLeadingZeros(out);
+            Converter.writeDecimal(fractionDigits, 0, fractionDigits.length(), groupRepeatedDigits, dashes, out);
+        }
+    }
 
+    private void writeLeadingZeros(Appendable out) throws IOException {
+        if (Converter.isCountedLeadingZeros(leadingZeros, groupRepeatedDigits)) {
+            Converter.writeRepeatedDigit(0, leadingZeros, dashes, out);
+            out.append(" ");
+        } else {
+            for (int i = 0; i < leadingZeros.intValue(); i++) out.append("zero ");
         }
+    }
 
-        if (number != null) { // If no illionOffset is done
-            converted.append(Converter.convertInteger( // Integer part conversion
-                    Converter.getGroupsOfThousands(number.toBigInteger()),
-                    dashes, BigInteger.ZERO));
+    @Override
+    public SpelledText getSpelledText(boolean capitalize) {
+        SpelledText.Builder text = new SpelledText.Builder(dashes);
 
-            BigDecimal decimalPart = number.remainder(BigDecimal.ONE).abs();
-            if (decimalPart.signum() != 0)
-                converted.append(" point ").append(Converter.convertDecimal(decimalPart)); // Decimal part conversion
+        if (coefficient.signum() == -1) text.text("negative ");
+        text.integer(integerPartArray, illionOffset);
+
+        if (!fractionDigits.isEmpty()) {
+            StringBuilder point = Converter.appendTo(new StringBuilder(" point "), this::writeLeadingZeros);
+            text.text(point.toString()).digits(fractionDigits, 0, fractionDigits.length(), groupRepeatedDigits);
         }
 
+        return text.build(capitalize);
     }
 
     @Override
     public StringBuilder getConverted() {
-        return converted;
+        return Converter.appendTo(new StringBuilder(), this::writeTo);
     }
 
     @Override
     public String[] getFormatted() {
-        return new String[] {coefficient + " * 10^" + exponent,
-                coefficient + "e" + exponent};
+        StringBuilder formatted = Converter.appendTo(new StringBuilder(), out -> writeFormatted(out, FormatSymbols.DEFAULT, false));
+        StringBuilder eNotation = Converter.appendTo(new StringBuilder(), out -> writeFormatted(out, FormatSymbols.DEFAULT, true));
+
+        return new String[] {formatted.toString(), eNotation.toString()};
+    }
+
+    @Override
+    public void writeFormatted(Appendable out, FormatSymbols symbols, boolean eNotation) throws IOException {
+        String plain = coefficient.toPlainString(); // toString would use E notation for coefficients like 0.0000001
+        int point = plain.indexOf('.');
+
+        if (point == -1) out.append(plain);
+        else out.append(plain, 0, point).append(symbols.decimalSeparator()).append(plain, point + 1, plain.length());
+
+        out.append(eNotation ? "e" : " * 10^").append(exponent.toString());
     }
 
     @Override
     public String getConvertedString() {
-        return converted.toString();
+        return getConverted().toString();
     }
 }
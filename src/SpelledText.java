@@ -0,0 +1,214 @@
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// The spelled text of a number that is only built for the part that is read. The text is made of parts ("negative ",
+// the groups with illions, " point ", the digits after it...), and the big parts are split into blocks of groups or
+// digits. The index only keeps where each block starts in the text, so finding any position is a binary search, and
+// reading a slice only spells the blocks it touches. Building the index goes through every group and digit once, but
+// only adds up the lengths of their words, so nothing is spelled.
+// For a 10 million digit number this is a few hundred KB of index instead of a quarter of a billion characters.
+public final class SpelledText implements CharSequence {
+    private static final int GROUPS_PER_BLOCK = 64;
+    private static final int DIGITS_PER_BLOCK = 1024; // Can be more when a block would split a run of the same digit
+
+    private final Part[] parts;
+    private final long[] partStarts; // Where each part starts in the text, with the whole length at the end
+    private final boolean capitalize;
+    private volatile Block lastBlock; // The block charAt read last, since it's usually read in order
+
+    private SpelledText(List<Part> parts, boolean capitalize) {
+        this.parts = parts.toArray(new Part[0]);
+        this.partStarts = new long[this.parts.length + 1];
+        this.capitalize = capitalize;
+
+        for (int i = 0; i < this.parts.length; i++) {
+            partStarts[i + 1] = partStarts[i] + this.parts[i].getLength();
+        }
+    }
+
+    public long getLength() {
+        return partStarts[parts.length];
+    }
+
+    @Override
+    public int length() { // The whole text has to fit in an int for CharSequence, use getLength() for larger ones
+        return Math.toIntExact(getLength());
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= getLength()) throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + getLength());
+
+        Block block = lastBlock;
+        if (block == null || index < block.start || index >= block.start + block.text.length()) {
+            int part = findPart(index);
+            int number = parts[part].findBlock(index - partStarts[part]);
+
+            StringBuilder text = new StringBuilder();
+            parts[part].writeBlocks(number, number + 1, text);
+            block = new Block(partStarts[part] + parts[part].blockStarts[number], text.toString());
+            lastBlock = block;
+        }
+
+        char c = block.text.charAt((int) (index - block.start));
+        return index == 0 && capitalize ? Character.toUpperCase(c) : c;
+    }
+
+    @Override
+    public String subSequence(int start, int end) {
+        return slice(start, end);
+    }
+
+    public String slice(long start, long end) { // The text in [start, end)
+        return Converter.appendTo(new StringBuilder(Math.toIntExact(end - start)), out -> write(start, end, out)).toString();
+    }
+
+    // Writes the text in [start, end) to out one block at a time, so large ranges are never all in memory
+    public void write(long start, long end, Appendable out) throws IOException {
+        if (start < 0 || end > getLength() || start > end) throw new IndexOutOfBoundsException("Range [" + start + ", " + end + ") out of bounds for length " + getLength());
+
+        StringBuilder text = new StringBuilder();
+        long position = start;
+
+        while (position < end) {
+            int part = findPart(position);
+            Part current = parts[part];
+            long offset = position - partStarts[part]; // In the part
+            int block = current.findBlock(offset);
+
+            text.setLength(0);
+            current.writeBlocks(block, block + 1, text);
+
+            int from = (int) (offset - current.blockStarts[block]);
+            int to = (int) Math.min(text.length(), from + (end - position));
+
+            if (position == 0 && capitalize && from < to) {
+                out.append(Character.toUpperCase(text.charAt(from++)));
+            }
+            out.append(text, from, to);
+            position += to - (offset - current.blockStarts[block]);
+        }
+    }
+
+    @Override
+    public String toString() { // Spells the whole text, so avoid it for huge numbers
+        return slice(0, getLength());
+    }
+
+    private int findPart(long position) { // The last part that starts at or before position
+        int index = Arrays.binarySearch(partStarts, 0, parts.length, position);
+        if (index < 0) return -index - 2;
+
+        while (index + 1 < parts.length && partStarts[index + 1] == position) index++; // Skips empty parts
+        return index;
+    }
+
+    private record Block(long start, String text) {}
+
+    // Builds the text of a number part by part. Used by the Number classes.
+    static class Builder {
+        private final List<Part> parts = new ArrayList<>();
+        private final boolean hyphens;
+
+        Builder(boolean hyphens) {
+            this.hyphens = hyphens;
+        }
+
+        Builder text(String text) {
+            if (!text.isEmpty()) parts.add(new Part(new long[] {0, text.length()}, (from, to, out) -> out.append(text)));
+            return this;
+        }
+
+        // Same text as Converter.writeInteger
+        Builder integer(PackedGroups numberGroups, BigInteger illionOffset) {
+            if (numberGroups.isZero()) return text("zero");
+
+            int groupsWithIllion = Converter.getGroupsWithIllion(numberGroups, illionOffset);
+            int blocks = (groupsWithIllion + GROUPS_PER_BLOCK - 1) / GROUPS_PER_BLOCK;
+
+            parts.add(Part.index(blocks, block -> Converter.getGroupsLength(numberGroups, block * GROUPS_PER_BLOCK,
+                    Math.min((block + 1) * GROUPS_PER_BLOCK, groupsWithIllion), hyphens, illionOffset),
+                    (from, to, text) -> Converter.appendTo(text, out -> Converter.writeGroups(numberGroups,
+                    from * GROUPS_PER_BLOCK, Math.min(to * GROUPS_PER_BLOCK, groupsWithIllion), hyphens, illionOffset, out))));
+
+            return text(Converter.appendTo(new StringBuilder(), out -> Converter.writeLastGroups(numberGroups, hyphens, illionOffset, out)).toString());
+        }
+
+        // Same text as Converter.writeDecimal. Blocks never split a run of the same digit, so the runs are grouped the same way.
+        Builder digits(CharSequence digits, int start, int end, boolean groupRepeatedDigits) {
+            if (start >= end) return this;
+
+            int[] blockStarts = new int[(end - start) / DIGITS_PER_BLOCK + 2];
+            int blocks = 0;
+            for (int position = start; position < end; ) {
+                blockStarts[blocks++] = position;
+                position = Math.min(position + DIGITS_PER_BLOCK, end);
+
+                if (groupRepeatedDigits) {
+                    while (position < end && digits.charAt(position) == digits.charAt(position - 1)) position++;
+                }
+            }
+            blockStarts[blocks] = end;
+
+            parts.add(Part.index(blocks, block -> (block > 0 ? 1 : 0) + Converter.getDecimalLength(digits, blockStarts[block],
+                    blockStarts[block + 1], groupRepeatedDigits, hyphens), (from, to, text) -> Converter.appendTo(text, out -> {
+                for (int block = from; block < to; block++) {
+                    if (block > 0) out.append(' '); // The space between the digits of two blocks belongs to the second one
+                    Converter.writeDecimal(digits, blockStarts[block], blockStarts[block + 1], groupRepeatedDigits, hyphens, out);
+                }
+            })));
+            return this;
+        }
+
+        SpelledText build(boolean capitalize) {
+            return new SpelledText(parts, capitalize);
+        }
+    }
+
+    private interface BlockLength {
+        long get(int block); // How many chars the block has, without spelling it
+    }
+
+    private interface BlockWriter {
+        void write(int from, int to, StringBuilder out); // Writes the blocks in [from, to)
+    }
+
+    private static class Part {
+        private final long[] blockStarts; // Where each block starts in the part, with the part's length at the end
+        private final BlockWriter writer;
+
+        private Part(long[] blockStarts, BlockWriter writer) {
+            this.blockStarts = blockStarts;
+            this.writer = writer;
+        }
+
+        private static Part index(int blocks, BlockLength length, BlockWriter writer) {
+            long[] blockStarts = new long[blocks + 1];
+
+            for (int i = 0; i < blocks; i++) {
+                blockStarts[i + 1] = blockStarts[i] + length.get(i);
+            }
+
+            return new Part(blockStarts, writer);
+        }
+
+        private long getLength() {
+            return blockStarts[blockStarts.length - 1];
+        }
+
+        private int findBlock(long offset) { // The last non-empty block that starts at or before offset
+            int index = Arrays.binarySearch(blockStarts, offset);
+            if (index < 0) return -index - 2;
+
+            while (index + 1 < blockStarts.length - 1 && blockStarts[index + 1] == offset) index++; // Skips empty blocks
+            return index;
+        }
+
+        private void writeBlocks(int from, int to, StringBuilder out) {
+            writer.write(from, to, out);
+        }
+    }
+}
@@ -0,0 +1,353 @@
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+// Reads a spelled number back into digits, like "One thousand two hundred thirty-four point five" -> 1234.5.
+// It understands everything Numsay writes: hyphens or not, "negative", "point", any illion (also made of many
+// illis, like "trestrigintatrecentilliquintrigintatrecentillion") and "zero repeated five times".
+// The text is read word by word from a Reader, and every word is only looked at once, so it takes linear time.
+// Illion words are split into illis with a trie made from the illis Converter uses.
+public class SpellingParser {
+    private static final BigInteger THREE = BigInteger.valueOf(3);
+    private static final int BUFFER_SIZE = 8192;
+
+    // The number words are the single words Converter uses for 0 to 19 and the tens
+    private static final Map<String, Integer> NUMBER_WORDS = new HashMap<>();
+
+    static {
+        for (short i = 0; i < 100; i++) {
+            if (i < 20 || i % 10 == 0) NUMBER_WORDS.put(Converter.convertInteger(new short[] {i}, true, BigInteger.ZERO).toString(), (int) i);
+        }
+    }
+
+    private final Reader reader;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position, length;
+    private final StringBuilder word = new StringBuilder();
+
+    // value = (negative ? -1 : 1) * digits * 10^exponent. digits has no leading or trailing zeros ("0" for zero).
+    public record Result(boolean negative, String digits, BigInteger exponent) {
+        public BigDecimal toBigDecimal() { // Throws ArithmeticException if the exponent doesn't fit in an int
+            BigDecimal value = new BigDecimal(new BigInteger(digits), exponent.negate().intValueExact());
+            return negative ? value.negate() : value;
+        }
+
+        public BigInteger toBigInteger() { // Throws ArithmeticException if the number has a fraction or is too large
+            return toBigDecimal().toBigIntegerExact();
+        }
+
+        public String toPlainString() { // Like 1234.5, throws ArithmeticException if the exponent doesn't fit in an int
+            int exponent = this.exponent.intValueExact();
+            StringBuilder plain = new StringBuilder(digits.length() + Math.abs(exponent) + 3);
+
+            if (negative) plain.append('-');
+
+            if (exponent >= 0) {
+                plain.append(digits).append("0".repeat(exponent));
+            } else if (-exponent < digits.length()) {
+                plain.append(digits, 0, digits.length() + exponent).append('.').append(digits, digits.length() + exponent, digits.length());
+            } else {
+                plain.append("0.").append("0".repeat(-exponent - digits.length())).append(digits);
+            }
+
+            return plain.toString();
+        }
+
+        @Override
+        public String toString() { // Like 12345e-1, so it's always short even if the exponent is huge
+            return (negative ? "-" : "") + digits + (exponent.signum() == 0 ? "" : "e" + exponent);
+        }
+    }
+
+    private SpellingParser(Reader reader) {
+        this.reader = reader;
+    }
+
+    public static Result parse(CharSequence text) {
+        try {
+            return parse(new StringReader(text.toString()));
+        } catch (IOException e) { // StringReader doesn't throw IOException
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Throws NumberFormatException if the text is not a number spelled the way Numsay spells them
+    public static Result parse(Reader reader) throws IOException {
+        return new SpellingParser(reader).parseNumber();
+    }
+
+    private Result parseNumber() throws IOException {
+        String next = readWord();
+        boolean negative = "negative".equals(next);
+        if (negative) next = readWord();
+
+        Digits digits = new Digits();
+        next = parseInteger(next, digits);
+
+        if ("point".equals(next)) {
+            next = readWord();
+            if (next == null) throw new NumberFormatException("Expected digits after \"point\"");
+
+            while (next != null) { // Digits, or "<digit> repeated <count> time(s)"
+                int digit = digitValue(next);
+                BigInteger count = BigInteger.ONE;
+
+                next = readWord();
+                if ("repeated".equals(next)) {
+                    Digits countDigits = new Digits();
+                    next = parseInteger(readWord(), countDigits);
+
+                    if (!"times".equals(next) && !"time".equals(next)) throw new NumberFormatException("Expected \"times\" after the repeated count");
+                    count = countDigits.toBigInteger();
+                    next = readWord();
+                }
+
+                digits.addFraction(digit, count);
+            }
+        }
+
+        if (next != null) throw new NumberFormatException("Unexpected word \"" + next + "\"");
+
+        return digits.toResult(negative && !digits.isZero());
+    }
+
+    // Reads groups like "two hundred thirty-four million" until a word that is not part of the integer, which is returned
+    private String parseInteger(String next, Digits digits) throws IOException {
+        if (next == null) throw new NumberFormatException("Expected a number");
+
+        if (next.equals("zero")) {
+            digits.endInteger();
+            return readWord();
+        }
+
+        int group = 0;
+        boolean hasHundreds = false, hasTens = false, hasUnits = false;
+
+        while (next != null) {
+            Integer value = NUMBER_WORDS.get(next);
+
+            if (value != null && value != 0) {
+                boolean tens = value >= 20;
+
+                if (tens ? hasTens || hasUnits : hasUnits || (hasTens && value >= 10)) throw new NumberFormatException("Unexpected word \"" + next + "\"");
+                group += value;
+                hasTens |= tens;
+                hasUnits |= !tens;
+            } else if (next.equals("hundred")) {
+                if (hasHundreds || hasTens || !hasUnits || group >= 10) throw new NumberFormatException("Unexpected word \"hundred\"");
+                group *= 100;
+                hasHundreds = true;
+                hasUnits = false;
+            } else if (next.equals("thousand") || next.endsWith("illion")) {
+                if (group == 0) throw new NumberFormatException("Expected a number before \"" + next + "\"");
+
+                BigInteger scale = next.equals("thousand") ? BigInteger.ONE : IllionTrie.parseOrdinal(next).add(BigInteger.ONE); // The group is multiplied by 1000^scale
+                digits.addGroup(group, scale);
+
+                group = 0;
+                hasHundreds = hasTens = hasUnits = false;
+            } else {
+                break;
+            }
+
+            next = readWord();
+        }
+
+        if (group != 0) digits.addGroup(group, BigInteger.ZERO);
+        else if (!digits.hasGroups()) throw new NumberFormatException(next == null ? "Expected a number" : "Unexpected word \"" + next + "\"");
+
+        digits.endInteger();
+        return next;
+    }
+
+    private static int digitValue(String word) {
+        Integer value = NUMBER_WORDS.get(word);
+        if (value == null || value > 9) throw new NumberFormatException("Expected a digit after \"point\", not \"" + word + "\"");
+        return value;
+    }
+
+    // The next word in lower case, or null at the end. Words are separated by spaces and hyphens.
+    private String readWord() throws IOException {
+        word.setLength(0);
+
+        while (true) {
+            if (position == length) {
+                length = reader.read(buffer);
+                position = 0;
+
+                if (length == -1) {
+                    length = 0;
+                    return word.length() == 0 ? null : word.toString();
+                }
+            }
+
+            char c = buffer[position++];
+
+            if (c >= 'a' && c <= 'z') {
+                word.append(c);
+            } else if (c >= 'A' && c <= 'Z') {
+                word.append((char) (c + ('a' - 'A')));
+            } else if (c == ' ' || c == '-' || c == '\n' || c == '\r' || c == '\t') {
+                if (word.length() > 0) return word.toString();
+            } else {
+                throw new NumberFormatException("Unexpected character '" + c + "'");
+            }
+        }
+    }
+
+    // Collects the digits of the number from left to right. Zeros are only counted until a non-zero digit comes after
+    // them, so "one centillion" or "zero point zero repeated a million times one" never write all of their zeros.
+    private static class Digits {
+        private final StringBuilder digits = new StringBuilder();
+        private BigInteger zeros = BigInteger.ZERO; // Zeros after digits that are not written yet
+        private BigInteger integerDigitsLeft; // How many integer digits come after the last group, null before the first
+        private BigInteger fractionLength = BigInteger.ZERO;
+
+        private boolean hasGroups() {
+            return integerDigitsLeft != null;
+        }
+
+        private boolean isZero() {
+            return digits.length() == 0;
+        }
+
+        private void addGroup(int value, BigInteger scale) { // value * 1000^scale, the groups have to get smaller
+            BigInteger groupStart = scale.multiply(THREE).add(THREE);
+
+            if (integerDigitsLeft != null) {
+                BigInteger gap = integerDigitsLeft.subtract(groupStart);
+                if (gap.signum() < 0) throw new NumberFormatException("The groups are not in order, from the largest to the smallest");
+                add(0, gap);
+            }
+
+            add(value / 100, BigInteger.ONE);
+            add(value / 10 % 10, BigInteger.ONE);
+            add(value % 10, BigInteger.ONE);
+            integerDigitsLeft = groupStart.subtract(THREE);
+        }
+
+        private void endInteger() {
+            if (integerDigitsLeft != null) add(0, integerDigitsLeft);
+            integerDigitsLeft = BigInteger.ZERO;
+        }
+
+        private void addFraction(int digit, BigInteger count) {
+            add(digit, count);
+            fractionLength = fractionLength.add(count);
+        }
+
+        private void add(int digit, BigInteger count) {
+            if (digit == 0) {
+                if (digits.length() > 0) zeros = zeros.add(count); // Leading zeros are not needed
+                return;
+            }
+
+            if (zeros.signum() > 0) {
+                write('0', zeros);
+                zeros = BigInteger.ZERO;
+            }
+            write((char) ('0' + digit), count);
+        }
+
+        private void write(char digit, BigInteger count) {
+            if (count.compareTo(BigInteger.valueOf(Integer.MAX_VALUE - 8 - digits.length())) > 0) {
+                throw new ArithmeticException("The number has too many digits to write out");
+            }
+
+            for (int i = count.intValue(); i > 0; i--) digits.append(digit);
+        }
+
+        private BigInteger toBigInteger() { // For the counts of repeated digits, which are always integers
+            return digits.length() == 0 ? BigInteger.ZERO : new BigInteger(digits.toString()).multiply(BigInteger.TEN.pow(zeros.intValueExact()));
+        }
+
+        private Result toResult(boolean negative) {
+            if (digits.length() == 0) return new Result(false, "0", BigInteger.ZERO);
+            return new Result(negative, digits.toString(), zeros.subtract(fractionLength));
+        }
+    }
+
+    // A trie of every illi (the part of an illion name for one base 1000 limb of the ordinal, like "trestrigintatrecentilli"),
+    // stored in arrays: the child of node n for the letter c is children[n * 26 + c - 'a'] (0 if there isn't one)
+    private static class IllionTrie {
+        private static int[] children = new int[26 * 1024];
+        private static int[] limbs = new int[1024]; // The limb a node stands for, -1 if it's not the end of an illi
+        private static int nodes = 1; // Node 0 is the root
+
+        private IllionTrie() {}
+
+        static {
+            limbs[0] = -1;
+
+            for (int limb = 0; limb < 1000; limb++) {
+                String illi = Converter.getIlli(limb);
+                int node = 0;
+
+                for (int i = 0; i < illi.length(); i++) {
+                    int child = illi.charAt(i) - 'a';
+                    if (children[node * 26 + child] == 0) {
+                        int next = newNode(); // Before indexing children, since newNode can replace the array
+                        children[node * 26 + child] = next;
+                    }
+                    node = children[node * 26 + child];
+
+                    if (limbs[node] != -1) throw new IllegalStateException("An illi starts with another illi"); // The parser needs them to be prefix-free
+                }
+
+                limbs[node] = limb;
+            }
+        }
+
+        private static int newNode() {
+            if (nodes == limbs.length) {
+                limbs = Arrays.copyOf(limbs, nodes * 2);
+                children = Arrays.copyOf(children, nodes * 2 * 26);
+            }
+
+            limbs[nodes] = -1;
+            return nodes++;
+        }
+
+        // "million" -> 1, "trestrigintatrecentilliquintrigintatrecentillion" -> 333,335
+        private static BigInteger parseOrdinal(String illion) {
+            int end = illion.length() - 2; // Without the "on"
+            int[] ordinalLimbs = new int[Math.max(1, end / 4)]; // Every illi has at least 4 letters
+            int count = 0;
+            int node = 0;
+
+            for (int i = 0; i < end; i++) {
+                int child = illion.charAt(i) - 'a';
+                node = children[node * 26 + child];
+                if (node == 0) throw new NumberFormatException("Unknown illion \"" + illion + "\"");
+
+                if (limbs[node] != -1) { // An illi ended, the next one starts at the root
+                    ordinalLimbs[count++] = limbs[node];
+                    node = 0;
+                }
+            }
+
+            if (node != 0 || count == 0 || ordinalLimbs[0] == 0) { // Ordinals don't start with "nilli"
+                throw new NumberFormatException("Unknown illion \"" + illion + "\"");
+            }
+
+            return toBigInteger(ordinalLimbs, 0, count);
+        }
+
+        private static BigInteger toBigInteger(int[] limbs, int from, int to) { // Splits in half, so huge ordinals are not quadratic
+            if (to - from <= 6) { // Fits in a long
+                long value = 0;
+                for (int i = from; i < to; i++) value = value * 1000 + limbs[i];
+                return BigInteger.valueOf(value);
+            }
+
+            int middle = (from + to) >>> 1;
+            return toBigInteger(limbs, from, middle).multiply(BigInteger.valueOf(1000).pow(to - middle)).add(toBigInteger(limbs, middle, to));
+        }
+    }
+}